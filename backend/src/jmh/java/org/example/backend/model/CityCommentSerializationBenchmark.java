@@ -0,0 +1,82 @@
+package org.example.backend.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CityCommentSerializationBenchmark {
+
+    @Param({"3", "100", "1000"})
+    private int replies;
+
+    @Param({"50"})
+    private int comments;
+
+    private ObjectMapper objectMapper;
+    private CityComment comment;
+    private List<CityComment> page;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        comment = comment("c0");
+        page = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            page.add(comment("c" + i));
+        }
+    }
+
+    private CityComment comment(String id) {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Reply> replyList = new ArrayList<>(replies);
+        for (int i = 0; i < replies; i++) {
+            replyList.add(Reply.builder()
+                    .id(id + "-r" + i)
+                    .commentId(id)
+                    .username("user" + i)
+                    .text("Antwort " + i + " " + "x".repeat(120))
+                    .createdAt(now.minusMinutes(i))
+                    .build());
+        }
+        return CityComment.builder()
+                .id(id)
+                .cityName("Berlin")
+                .cityKey("berlin")
+                .username("author")
+                .comment("k".repeat(500))
+                .imageUrl("https://res.cloudinary.com/demo/image/upload/" + id + ".jpg")
+                .imageStatus(ImageStatus.READY)
+                .createdAt(now)
+                .updatedAt(now)
+                .likesCount(replies * 3)
+                .replyCount(replies)
+                .replies(replyList)
+                .version(7L)
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeComment() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(comment);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.backend.service;
+
+import org.example.backend.model.CityStats;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CityStatsBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int cities;
+
+    private CityStatsService cityStatsService;
+    private SplittableRandom random;
+    private long seq;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cityStatsService = new CityStatsService(null, null, null, null);
+        random = new SplittableRandom(42);
+        for (int i = 0; i < cities; i++) {
+            cityStatsService.refresh(CityStats.builder()
+                    .cityKey("stadt-" + i)
+                    .cityName("Stadt-" + i)
+                    .favoritesCount(random.nextInt(10_000))
+                    .commentsCount(random.nextInt(1_000))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mostPopularCities() {
+        return cityStatsService.getMostPopularCities(10);
+    }
+
+    @Benchmark
+    public void favoriteCountChanged() {
+        int city = random.nextInt(cities);
+        cityStatsService.refresh(CityStats.builder()
+                .cityKey("stadt-" + city)
+                .cityName("Stadt-" + city)
+                .favoritesCount(random.nextInt(10_000))
+                .commentsCount(random.nextInt(1_000))
+                .seq(++seq)
+                .build());
+    }
+
+    @Benchmark
+    public List<String> suggestCities() {
+        return cityStatsService.suggestCities("stadt-" + random.nextInt(100), 10);
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.backend.cloudinary;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class CloudinaryImageStorage implements ImageStorage {
+
+    private final Cloudinary cloudinary;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary uploadBytes;
+
+    public CloudinaryImageStorage(Cloudinary cloudinary, MeterRegistry meterRegistry) {
+        this.cloudinary = cloudinary;
+        this.meterRegistry = meterRegistry;
+        this.uploadBytes = DistributionSummary.builder("cloudinary.upload.bytes")
+                .baseUnit("bytes")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public StoredImage upload(Path file) throws IOException {
+        long size = Files.size(file);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        Map<String, Object> uploadResult;
+        try {
+            uploadResult = cloudinary.uploader().upload(
+                    file.toFile(),
+                    ObjectUtils.asMap("folder", "city-comments")
+            );
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("cloudinary.upload")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+        uploadBytes.record(size);
+        return StoredImage.builder()
+                .url((String) uploadResult.get("secure_url"))
+                .publicId((String) uploadResult.get("public_id"))
+                .build();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<String> delete(List<String> publicIds) throws IOException {
+        Map<String, Object> result;
+        try {
+            result = cloudinary.api().deleteResources(publicIds, ObjectUtils.emptyMap());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cloudinary-Löschung fehlgeschlagen", e);
+        }
+        Map<String, Object> deleted = (Map<String, Object>) result.getOrDefault("deleted", Map.of());
+        Set<String> removed = new HashSet<>();
+        deleted.forEach((publicId, status) -> {
+            if ("deleted".equals(status) || "not_found".equals(status)) {
+                removed.add(publicId);
+            }
+        });
+        return removed;
+    }
+}
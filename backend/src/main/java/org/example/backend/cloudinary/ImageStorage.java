@@ -0,0 +1,12 @@
+package org.example.backend.cloudinary;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+public interface ImageStorage {
+    StoredImage upload(Path file) throws IOException;
+
+    Set<String> delete(List<String> publicIds) throws IOException;
+}
@@ -0,0 +1,11 @@
+package org.example.backend.cloudinary;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class StoredImage {
+    private String url;
+    private String publicId;
+}
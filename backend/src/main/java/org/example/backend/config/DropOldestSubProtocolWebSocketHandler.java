@@ -0,0 +1,58 @@
+package org.example.backend.config;
+
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.messaging.SubProtocolWebSocketHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class DropOldestSubProtocolWebSocketHandler extends SubProtocolWebSocketHandler {
+
+    private final Map<String, ConcurrentWebSocketSessionDecorator> sessions = new ConcurrentHashMap<>();
+
+    public DropOldestSubProtocolWebSocketHandler(MessageChannel clientInboundChannel,
+                                                 SubscribableChannel clientOutboundChannel) {
+        super(clientInboundChannel, clientOutboundChannel);
+    }
+
+    @Override
+    protected WebSocketSession decorateSession(WebSocketSession session) {
+        ConcurrentWebSocketSessionDecorator decorated = new ConcurrentWebSocketSessionDecorator(session,
+                getSendTimeLimit(), getSendBufferSizeLimit(),
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        sessions.put(session.getId(), decorated);
+        return decorated;
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        sessions.remove(session.getId());
+        super.afterConnectionClosed(session, closeStatus);
+    }
+
+    public int openSessions() {
+        return sessions.size();
+    }
+
+    public long laggingSessions() {
+        return sessions.values().stream().filter(session -> session.getBufferSize() > 0).count();
+    }
+
+    public long maxBufferSize() {
+        return sessions.values().stream()
+                .mapToLong(ConcurrentWebSocketSessionDecorator::getBufferSize)
+                .max()
+                .orElse(0);
+    }
+
+    public long maxSendLagMillis() {
+        return sessions.values().stream()
+                .mapToLong(ConcurrentWebSocketSessionDecorator::getTimeSinceSendStarted)
+                .max()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.backend.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MongoCommandSizeListener mongoCommandSizeListener(MeterRegistry registry) {
+        return new MongoCommandSizeListener(registry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandSizeCustomizer(MongoCommandSizeListener listener) {
+        return builder -> builder.addCommandListener(listener);
+    }
+}
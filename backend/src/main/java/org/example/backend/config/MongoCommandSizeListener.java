@@ -0,0 +1,73 @@
+package org.example.backend.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class MongoCommandSizeListener implements CommandListener {
+
+    private static final BsonDocumentCodec CODEC = new BsonDocumentCodec();
+
+    private final MeterRegistry registry;
+    private final Map<Integer, String> collectionByRequest = new ConcurrentHashMap<>();
+
+    public MongoCommandSizeListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String collection = collectionOf(event.getCommandName(), event.getCommand());
+        collectionByRequest.put(event.getRequestId(), collection);
+        summary("mongodb.driver.command.size", event.getCommandName(), collection)
+                .record(sizeOf(event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        String collection = collectionByRequest.remove(event.getRequestId());
+        summary("mongodb.driver.reply.size", event.getCommandName(), collection != null ? collection : "unknown")
+                .record(sizeOf(event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        collectionByRequest.remove(event.getRequestId());
+    }
+
+    private DistributionSummary summary(String name, String command, String collection) {
+        return DistributionSummary.builder(name)
+                .baseUnit("bytes")
+                .tag("command", command)
+                .tag("collection", collection)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue value = command.get(commandName);
+        if (value != null && value.isString()) {
+            return value.asString().getValue();
+        }
+        value = command.get("collection");
+        return value != null && value.isString() ? value.asString().getValue() : "unknown";
+    }
+
+    private static int sizeOf(BsonDocument document) {
+        if (document == null) {
+            return 0;
+        }
+        RawBsonDocument raw = document instanceof RawBsonDocument r ? r : new RawBsonDocument(document, CODEC);
+        return raw.getByteBuffer().remaining();
+    }
+}
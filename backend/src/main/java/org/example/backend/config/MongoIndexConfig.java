@@ -0,0 +1,111 @@
+package org.example.backend.config;
+
+import org.example.backend.model.AppUser;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CommentLike;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.model.Notification;
+import org.example.backend.model.Reply;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.TextIndexDefinition;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@Order(0)
+public class MongoIndexConfig implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration notificationReadRetention;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate,
+                            @Value("${notifications.read-retention:30d}") Duration notificationReadRetention) {
+        this.mongoTemplate = mongoTemplate;
+        this.notificationReadRetention = notificationReadRetention;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        mongoTemplate.indexOps(CityComment.class).ensureIndex(new Index()
+                .on("cityKey", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("city_feed"));
+        ensureReplacing(CityComment.class, TextIndexDefinition.builder()
+                .onField("comment", 3F)
+                .onField("replies.text")
+                .withDefaultLanguage("german")
+                .named("comment_text")
+                .build());
+        mongoTemplate.indexOps(CityComment.class).ensureIndex(new Index()
+                .on("imagePublicId", Sort.Direction.ASC)
+                .sparse()
+                .named("comment_image_public_id"));
+        mongoTemplate.indexOps(CityComment.class).ensureIndex(new Index()
+                .on("thumbnailPublicId", Sort.Direction.ASC)
+                .sparse()
+                .named("comment_thumbnail_public_id"));
+        mongoTemplate.indexOps(ImageAsset.class).ensureIndex(new Index()
+                .on("imagePublicId", Sort.Direction.ASC)
+                .sparse()
+                .named("asset_image_public_id"));
+        mongoTemplate.indexOps(ImageAsset.class).ensureIndex(new Index()
+                .on("thumbnailPublicId", Sort.Direction.ASC)
+                .sparse()
+                .named("asset_thumbnail_public_id"));
+        mongoTemplate.indexOps(Reply.class).ensureIndex(new Index()
+                .on("commentId", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("comment_replies"));
+        mongoTemplate.indexOps(CommentLike.class).ensureIndex(new Index()
+                .on("commentId", Sort.Direction.ASC)
+                .on("username", Sort.Direction.ASC)
+                .unique()
+                .named("comment_user_like"));
+        mongoTemplate.indexOps(AppUser.class).ensureIndex(new Index()
+                .on("username", Sort.Direction.ASC)
+                .unique()
+                .sparse()
+                .named("user_username"));
+        mongoTemplate.indexOps(Notification.class).ensureIndex(new Index()
+                .on("username", Sort.Direction.ASC)
+                .on("createdAt", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("notification_inbox"));
+        mongoTemplate.indexOps(Notification.class).ensureIndex(new Index()
+                .on("username", Sort.Direction.ASC)
+                .on("read", Sort.Direction.ASC)
+                .named("notification_unread"));
+        ensureReplacing(Notification.class, new Index()
+                .on("readAt", Sort.Direction.ASC)
+                .expire(notificationReadRetention)
+                .named("notification_read_ttl"));
+    }
+
+    private void ensureReplacing(Class<?> type, IndexDefinition index) {
+        IndexOperations indexOps = mongoTemplate.indexOps(type);
+        try {
+            indexOps.ensureIndex(index);
+        } catch (DataAccessException e) {
+            String name = index.getIndexOptions().getString("name");
+            log.info("Index {} hat geänderte Optionen und wird neu angelegt", name);
+            indexOps.dropIndex(name);
+            indexOps.ensureIndex(index);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.ClassVisitor;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.SpringAsmInfo;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinningAudit implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningAudit.class);
+    private static final String BASE_PACKAGE = "org/example/backend";
+
+    private static final List<String> BLOCKING_OWNERS = List.of(
+            "com/mongodb/",
+            "org/springframework/data/mongodb/",
+            "org/springframework/data/repository/",
+            "org/example/backend/repository/",
+            "com/cloudinary/",
+            "java/io/",
+            "java/net/",
+            "java/nio/file/",
+            "java/nio/channels/",
+            "org/example/backend/messaging/",
+            "org/springframework/messaging/simp/SimpMessagingTemplate",
+            "org/springframework/web/client/"
+    );
+
+    public record Finding(String className, String methodName, Set<String> blockingCalls) {
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        List<Finding> findings = scan("classpath*:" + BASE_PACKAGE + "/**/*.class");
+        if (findings.isEmpty()) {
+            log.info("Pinning-Audit: keine blockierenden Aufrufe innerhalb von synchronized gefunden");
+            return;
+        }
+        for (Finding finding : findings) {
+            log.warn("Pinning-Audit: {}.{} blockiert innerhalb von synchronized: {}",
+                    finding.className(), finding.methodName(), finding.blockingCalls());
+        }
+    }
+
+    public List<Finding> scan(String locationPattern) throws IOException {
+        List<Finding> findings = new ArrayList<>();
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(locationPattern);
+        for (Resource resource : resources) {
+            try (InputStream in = resource.getInputStream()) {
+                findings.addAll(inspect(new ClassReader(in)));
+            }
+        }
+        return findings;
+    }
+
+    public List<Finding> inspect(Class<?> type) throws IOException {
+        return inspect(new ClassReader(type.getName()));
+    }
+
+    private List<Finding> inspect(ClassReader reader) {
+        List<Finding> findings = new ArrayList<>();
+        String className = reader.getClassName().replace('/', '.');
+        reader.accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                boolean synchronizedMethod = (access & Opcodes.ACC_SYNCHRONIZED) != 0;
+                return new MethodVisitor(SpringAsmInfo.ASM_VERSION) {
+                    private final Set<String> blockingCalls = new TreeSet<>();
+                    private int monitorDepth = 0;
+
+                    @Override
+                    public void visitInsn(int opcode) {
+                        if (opcode == Opcodes.MONITORENTER) {
+                            monitorDepth++;
+                        } else if (opcode == Opcodes.MONITOREXIT && monitorDepth > 0) {
+                            monitorDepth--;
+                        }
+                    }
+
+                    @Override
+                    public void visitMethodInsn(int opcode, String owner, String methodName, String methodDescriptor, boolean isInterface) {
+                        if ((synchronizedMethod || monitorDepth > 0) && isBlocking(owner)) {
+                            blockingCalls.add(owner.replace('/', '.') + "." + methodName);
+                        }
+                    }
+
+                    @Override
+                    public void visitEnd() {
+                        if (!blockingCalls.isEmpty()) {
+                            findings.add(new Finding(className, name, blockingCalls));
+                        }
+                    }
+                };
+            }
+        }, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return findings;
+    }
+
+    private static boolean isBlocking(String owner) {
+        return BLOCKING_OWNERS.stream().anyMatch(owner::startsWith);
+    }
+}
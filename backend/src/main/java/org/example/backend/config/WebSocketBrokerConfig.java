@@ -0,0 +1,62 @@
+package org.example.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.AbstractSubscribableChannel;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.config.annotation.DelegatingWebSocketMessageBrokerConfiguration;
+
+@Configuration
+public class WebSocketBrokerConfig extends DelegatingWebSocketMessageBrokerConfiguration {
+
+    @Override
+    @Bean
+    public DropOldestSubProtocolWebSocketHandler subProtocolWebSocketHandler(
+            AbstractSubscribableChannel clientInboundChannel, AbstractSubscribableChannel clientOutboundChannel) {
+        return new DropOldestSubProtocolWebSocketHandler(clientInboundChannel, clientOutboundChannel);
+    }
+
+    @Bean
+    public MeterBinder webSocketBackpressureMetrics(
+            @Qualifier("clientInboundChannel") AbstractSubscribableChannel clientInboundChannel,
+            @Qualifier("clientOutboundChannel") AbstractSubscribableChannel clientOutboundChannel,
+            DropOldestSubProtocolWebSocketHandler sessions,
+            SimpUserRegistry userRegistry) {
+        return registry -> {
+            Gauge.builder("websocket.stomp.users", userRegistry, SimpUserRegistry::getUserCount)
+                    .description("Verbundene STOMP-Benutzer")
+                    .register(registry);
+            bindQueueDepth(registry, "inbound", clientInboundChannel);
+            bindQueueDepth(registry, "outbound", clientOutboundChannel);
+            Gauge.builder("websocket.sessions.open", sessions, DropOldestSubProtocolWebSocketHandler::openSessions)
+                    .register(registry);
+            Gauge.builder("websocket.sessions.lagging", sessions, DropOldestSubProtocolWebSocketHandler::laggingSessions)
+                    .description("Sitzungen mit gepufferten, noch nicht gesendeten Frames")
+                    .register(registry);
+            Gauge.builder("websocket.sessions.buffer.max", sessions, DropOldestSubProtocolWebSocketHandler::maxBufferSize)
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("websocket.sessions.send.lag.max", sessions, DropOldestSubProtocolWebSocketHandler::maxSendLagMillis)
+                    .baseUnit("milliseconds")
+                    .register(registry);
+        };
+    }
+
+    private static void bindQueueDepth(MeterRegistry registry, String channel, AbstractSubscribableChannel subscribableChannel) {
+        if (subscribableChannel instanceof ExecutorSubscribableChannel executorChannel
+                && executorChannel.getExecutor() instanceof ThreadPoolTaskExecutor pool) {
+            Gauge.builder("websocket.channel.queue.depth", pool, p -> p.getThreadPoolExecutor().getQueue().size())
+                    .tag("channel", channel)
+                    .register(registry);
+            Gauge.builder("websocket.channel.active.threads", pool, ThreadPoolTaskExecutor::getActiveCount)
+                    .tag("channel", channel)
+                    .register(registry);
+        }
+    }
+}
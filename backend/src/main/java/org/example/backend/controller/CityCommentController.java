@@ -3,9 +3,17 @@ package org.example.backend.controller;
 import jakarta.validation.Valid;
 import org.example.backend.model.CityComment;
 import org.example.backend.model.CityCommentDTO;
+import org.example.backend.model.CursorPage;
+import org.example.backend.model.LikeResult;
+import org.example.backend.model.Reply;
 import org.example.backend.model.ReplyDTO;
 import org.example.backend.service.CityCommentService;
+import org.example.backend.service.ETags;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -24,15 +32,41 @@ public class CityCommentController {
     }
 
     @GetMapping("/comment/{cityName}")
-    public List<CityComment> getCommentsByCity(@PathVariable String cityName) {
-        return  cityCommentService.allComments(cityName);
+    public ResponseEntity<List<CityComment>> getCommentsByCity(@PathVariable String cityName,
+                                                               @RequestParam(required = false) String username,
+                                                               WebRequest request) {
+        String eTag = cityCommentService.commentsETag(cityName, username);
+        if (eTag != null && request.checkNotModified(eTag)) {
+            return null;
+        }
+        List<CityComment> comments = cityCommentService.allComments(cityName, username);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(comments);
+    }
+
+    @GetMapping("/comment/{cityName}/page")
+    public CursorPage<CityComment> getCommentPage(@PathVariable String cityName,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int limit,
+                                                  @RequestParam(required = false) String username) {
+        return cityCommentService.commentPage(cityName, cursor, limit, username);
     }
 
     @GetMapping("/comment/getId/{id}")
-    public CityComment getCommentsById(@PathVariable String id) {
+    public ResponseEntity<CityComment> getCommentsById(@PathVariable String id, WebRequest request) {
         Optional<CityComment> cityCommentOptional =  cityCommentService.getCommentById(id);
         if(cityCommentOptional.isPresent()){
-            return cityCommentOptional.get();
+            CityComment comment = cityCommentOptional.get();
+            String eTag = ETags.of(comment.getVersion());
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(eTag)
+                    .body(comment);
         }
         throw new NoSuchElementException("Kommentar mit ID: " + id + " nicht verfügbar");
     }
@@ -46,14 +80,17 @@ public class CityCommentController {
     }
 
     @PutMapping("/comment/{id}")
-    public CityComment updateComment(
+    public ResponseEntity<CityComment> updateComment(
             @PathVariable String id,
             @RequestPart("data") CityCommentDTO cityCommentDTO,
-            @RequestPart(value = "file", required = false) MultipartFile file
+            @RequestPart(value = "file", required = false) MultipartFile file,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws IOException {
-        CityComment cityComment = cityCommentService.updateComment(id, cityCommentDTO,file);
+        CityComment cityComment = cityCommentService.updateComment(id, cityCommentDTO, file, ETags.parseVersion(ifMatch));
         if (cityComment != null) {
-            return cityComment;
+            return ResponseEntity.ok()
+                    .eTag(ETags.of(cityComment.getVersion()))
+                    .body(cityComment);
         } else {
             throw new NoSuchElementException("Kommentare mit ID: " + id + " nicht verfügbar");
         }
@@ -65,7 +102,7 @@ public class CityCommentController {
     }
 
     @PostMapping("/comment/{commentId}/like")
-    public CityComment likeComment(@PathVariable String commentId,
+    public LikeResult likeComment(@PathVariable String commentId,
                                    @RequestParam String username) {
         return cityCommentService.toggleLike(commentId, username);
     }
@@ -76,6 +113,13 @@ public class CityCommentController {
     ) {
         return cityCommentService.addReply(commentId, replyRequest);
     }
+    @GetMapping("/comment/{commentId}/replies")
+    public CursorPage<Reply> getReplies(@PathVariable String commentId,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        return cityCommentService.replyPage(commentId, cursor, limit);
+    }
+
     @DeleteMapping("/comment/{commentId}/reply/{replyId}")
     public CityComment deleteReply(
             @PathVariable String commentId,
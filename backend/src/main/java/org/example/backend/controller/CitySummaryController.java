@@ -0,0 +1,24 @@
+package org.example.backend.controller;
+
+import org.example.backend.model.CityStats;
+import org.example.backend.service.CityStatsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api")
+public class CitySummaryController {
+
+    private final CityStatsService cityStatsService;
+
+    public CitySummaryController(CityStatsService cityStatsService) {
+        this.cityStatsService = cityStatsService;
+    }
+
+    @GetMapping("/city/{cityName}/summary")
+    public CityStats getCitySummary(@PathVariable String cityName) {
+        return cityStatsService.summary(cityName);
+    }
+}
@@ -2,7 +2,10 @@ package org.example.backend.controller;
 
 import org.example.backend.model.FavoriteGroup;
 import org.example.backend.service.FavoriteGroupService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -16,8 +19,15 @@ public class FavoriteGroupController {
     }
 
     @GetMapping("/groups")
-    public List<FavoriteGroup> getGroups(@RequestParam String username) {
-        return favoriteGroupService.getGroups(username);
+    public ResponseEntity<List<FavoriteGroup>> getGroups(@RequestParam String username, WebRequest request) {
+        String eTag = favoriteGroupService.groupsETag(username);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(favoriteGroupService.getGroups(username));
     }
 
     @PostMapping("/groups")
@@ -2,7 +2,10 @@ package org.example.backend.controller;
 
 import org.example.backend.model.AppUser;
 import org.example.backend.service.FavouriteCitiesService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -18,8 +21,15 @@ public class FavouriteCitiesController {
     }
 
     @GetMapping("/favorites")
-    public List<String> getFavoriteCities(@RequestParam String username) {
-        return favouriteCitiesService.getFavouriteList(username);
+    public ResponseEntity<List<String>> getFavoriteCities(@RequestParam String username, WebRequest request) {
+        String eTag = favouriteCitiesService.favoritesETag(username);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(eTag)
+                .body(favouriteCitiesService.getFavouriteList(username));
     }
 
     @PostMapping("/addToFavorites")
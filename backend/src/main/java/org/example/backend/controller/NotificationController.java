@@ -1,9 +1,12 @@
 package org.example.backend.controller;
 
+import org.example.backend.model.CursorPage;
 import org.example.backend.model.Notification;
 import org.example.backend.service.NotificationService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -16,8 +19,16 @@ public class NotificationController {
     }
 
     @GetMapping("/notifications")
-    public List<Notification> getAll(@RequestParam String username) {
-        return notificationService.getNotifications(username);
+    public List<Notification> getAll(@RequestParam String username,
+                                     @RequestParam(defaultValue = "50") int limit) {
+        return notificationService.notificationPage(username, null, limit).getItems();
+    }
+
+    @GetMapping("/notifications/page")
+    public CursorPage<Notification> getPage(@RequestParam String username,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        return notificationService.notificationPage(username, cursor, limit);
     }
 
     @GetMapping("/notifications/count")
@@ -31,7 +42,15 @@ public class NotificationController {
     }
 
     @PostMapping("/notifications/readAll")
-    public void markAllRead(@RequestParam String username) {
-        notificationService.markAllAsRead(username);
+    public long markAllRead(@RequestParam String username) {
+        return notificationService.markAllAsRead(username);
+    }
+
+    @PostMapping("/notifications/readUpTo")
+    public long markReadUpTo(@RequestParam String username,
+                             @RequestParam(required = false) String newest,
+                             @RequestParam(required = false) String oldest,
+                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime upTo) {
+        return notificationService.markReadUpTo(username, newest, oldest, upTo);
     }
 }
@@ -0,0 +1,42 @@
+package org.example.backend.controller;
+
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CursorPage;
+import org.example.backend.service.CityCommentService;
+import org.example.backend.service.CityStatsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final CityCommentService cityCommentService;
+    private final CityStatsService cityStatsService;
+
+    public SearchController(CityCommentService cityCommentService, CityStatsService cityStatsService) {
+        this.cityCommentService = cityCommentService;
+        this.cityStatsService = cityStatsService;
+    }
+
+    @GetMapping("/comments")
+    public CursorPage<CityComment> searchComments(@RequestParam String q,
+                                                  @RequestParam(required = false) String city,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "20") int limit,
+                                                  @RequestParam(required = false) String username) {
+        return cityCommentService.searchComments(q, city, cursor, limit, username);
+    }
+
+    @GetMapping("/cities")
+    public List<String> suggestCities(@RequestParam String prefix,
+                                      @RequestParam(defaultValue = "10") int limit) {
+        return cityStatsService.suggestCities(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS));
+    }
+}
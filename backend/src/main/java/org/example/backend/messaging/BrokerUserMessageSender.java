@@ -0,0 +1,21 @@
+package org.example.backend.messaging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnExpression("'${websocket.broker.mode:simple}' != 'change-stream'")
+public class BrokerUserMessageSender implements UserMessageSender {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public BrokerUserMessageSender(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    @Override
+    public void sendToUser(String username, String destination, Object payload) {
+        messagingTemplate.convertAndSendToUser(username, destination, payload);
+    }
+}
@@ -0,0 +1,120 @@
+package org.example.backend.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import org.bson.Document;
+import org.example.backend.model.UserMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "change-stream")
+public class ChangeStreamUserMessageSender implements UserMessageSender, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStreamUserMessageSender.class);
+    private static final String COLLECTION = "user_messages";
+
+    private final MongoTemplate mongoTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SimpUserRegistry userRegistry;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration retention;
+    private final MessageListenerContainer container;
+
+    public ChangeStreamUserMessageSender(MongoTemplate mongoTemplate,
+                                         SimpMessagingTemplate messagingTemplate,
+                                         SimpUserRegistry userRegistry,
+                                         ObjectMapper objectMapper,
+                                         ApplicationEventPublisher eventPublisher,
+                                         @Value("${websocket.change-stream.retention:5m}") Duration retention) {
+        this.mongoTemplate = mongoTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.userRegistry = userRegistry;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.retention = retention;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+    }
+
+    @Override
+    public void sendToUser(String username, String destination, Object payload) {
+        try {
+            mongoTemplate.insert(UserMessage.builder()
+                    .username(username)
+                    .destination(destination)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Nachricht für " + username + " kann nicht serialisiert werden", e);
+        }
+    }
+
+    void deliverLocally(UserMessage message) {
+        if (message == null) {
+            return;
+        }
+        eventPublisher.publishEvent(message);
+        if (userRegistry.getUser(message.getUsername()) == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(message.getUsername(), message.getDestination(),
+                    objectMapper.readTree(message.getPayload()));
+        } catch (JsonProcessingException e) {
+            log.warn("Nachricht {} für {} konnte nicht gelesen werden", message.getId(), message.getUsername(), e);
+        }
+    }
+
+    private void onMessage(Message<ChangeStreamDocument<Document>, UserMessage> message) {
+        deliverLocally(message.getBody());
+    }
+
+    @Override
+    public void start() {
+        mongoTemplate.indexOps(UserMessage.class).ensureIndex(new Index()
+                .on("createdAt", Sort.Direction.ASC)
+                .expire(retention)
+                .named("user_message_ttl"));
+        ChangeStreamRequest<UserMessage> request = ChangeStreamRequest.<UserMessage>builder(this::onMessage)
+                .collection(COLLECTION)
+                .filter(Aggregation.newAggregation(Aggregation.match(where("operationType").is("insert"))))
+                .build();
+        container.register(request, UserMessage.class,
+                e -> log.warn("Change Stream auf {} unterbrochen", COLLECTION, e));
+        container.start();
+        log.info("WebSocket-Zustellung über Change Stream auf {} aktiv", COLLECTION);
+    }
+
+    @Override
+    public void stop() {
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container.isRunning();
+    }
+}
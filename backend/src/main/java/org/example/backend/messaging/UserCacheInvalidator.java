@@ -0,0 +1,98 @@
+package org.example.backend.messaging;
+
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.example.backend.model.AppUser;
+import org.example.backend.repository.AppUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.messaging.ChangeStreamRequest;
+import org.springframework.data.mongodb.core.messaging.DefaultMessageListenerContainer;
+import org.springframework.data.mongodb.core.messaging.Message;
+import org.springframework.data.mongodb.core.messaging.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "change-stream")
+public class UserCacheInvalidator implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCacheInvalidator.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final MessageListenerContainer container;
+
+    public UserCacheInvalidator(MongoTemplate mongoTemplate, CacheManager cacheManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.container = new DefaultMessageListenerContainer(mongoTemplate);
+    }
+
+    void evict(String id, String username) {
+        Cache byId = cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE);
+        if (byId != null && id != null) {
+            byId.evict(id);
+        }
+        Cache byName = cacheManager.getCache(AppUserRepository.USERS_CACHE);
+        if (byName == null) {
+            return;
+        }
+        if (username != null) {
+            byName.evict(username);
+        } else {
+            byName.clear();
+        }
+    }
+
+    private void onChange(Message<ChangeStreamDocument<Document>, Document> message) {
+        ChangeStreamDocument<Document> change = message.getRaw();
+        BsonDocument key = change != null ? change.getDocumentKey() : null;
+        Document user = message.getBody();
+        evict(idOf(key != null ? key.get("_id") : null), user != null ? user.getString("username") : null);
+    }
+
+    private static String idOf(BsonValue id) {
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    @Override
+    public void start() {
+        String collection = mongoTemplate.getCollectionName(AppUser.class);
+        ChangeStreamRequest<Document> request = ChangeStreamRequest.<Document>builder(this::onChange)
+                .collection(collection)
+                .filter(Aggregation.newAggregation(Aggregation.match(where("operationType").in("update", "replace", "delete"))))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP)
+                .build();
+        container.register(request, Document.class,
+                e -> log.warn("Change Stream auf {} unterbrochen", collection, e));
+        container.start();
+        log.info("Benutzer-Cache wird über Change Stream auf {} invalidiert", collection);
+    }
+
+    @Override
+    public void stop() {
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return container.isRunning();
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.backend.messaging;
+
+public interface UserMessageSender {
+
+    void sendToUser(String username, String destination, Object payload);
+}
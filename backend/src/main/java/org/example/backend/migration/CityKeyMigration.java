@@ -0,0 +1,62 @@
+package org.example.backend.migration;
+
+import org.bson.Document;
+import org.example.backend.model.CityComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@Order(10)
+public class CityKeyMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CityKeyMigration.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public CityKeyMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String collection = mongoTemplate.getCollectionName(CityComment.class);
+        Query query = Query.query(where("cityKey").exists(false).and("cityName").exists(true));
+        query.fields().include("cityName");
+        query.cursorBatchSize(BATCH_SIZE);
+
+        long migrated = 0;
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, collection)) {
+            Iterator<Document> documents = stream.iterator();
+            while (documents.hasNext()) {
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                int batch = 0;
+                while (documents.hasNext() && batch < BATCH_SIZE) {
+                    Document doc = documents.next();
+                    bulk.updateOne(
+                            Query.query(where("_id").is(doc.get("_id"))),
+                            new Update().set("cityKey", CityComment.cityKeyOf(doc.getString("cityName"))));
+                    batch++;
+                }
+                bulk.execute();
+                migrated += batch;
+            }
+        }
+        if (migrated > 0) {
+            log.info("cityKey für {} Kommentare nachgetragen", migrated);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.backend.migration;
+
+import org.bson.Document;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CommentLike;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@Order(30)
+public class LikeMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LikeMigration.class);
+    private static final int BATCH_SIZE = 200;
+
+    private final MongoTemplate mongoTemplate;
+
+    public LikeMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String collection = mongoTemplate.getCollectionName(CityComment.class);
+        Query query = Query.query(where("likedByUsers").exists(true));
+        query.fields().include("likedByUsers");
+        query.cursorBatchSize(BATCH_SIZE);
+
+        long migratedComments = 0;
+        try (Stream<Document> stream = mongoTemplate.stream(query, Document.class, collection)) {
+            Iterator<Document> documents = stream.iterator();
+            while (documents.hasNext()) {
+                BulkOperations likeBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CommentLike.class);
+                BulkOperations commentBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                int batch = 0;
+                int likesInBatch = 0;
+                while (documents.hasNext() && batch < BATCH_SIZE) {
+                    Document doc = documents.next();
+                    String commentId = doc.get("_id").toString();
+                    Set<String> usernames = new LinkedHashSet<>(
+                            Optional.ofNullable(doc.getList("likedByUsers", String.class)).orElse(List.of()));
+                    for (String username : usernames) {
+                        likeBulk.upsert(
+                                Query.query(where("commentId").is(commentId).and("username").is(username)),
+                                new Update().setOnInsert("createdAt", LocalDateTime.now()));
+                        likesInBatch++;
+                    }
+                    commentBulk.updateOne(Query.query(where("_id").is(doc.get("_id"))),
+                            new Update().unset("likedByUsers").set("likesCount", usernames.size()));
+                    batch++;
+                }
+                if (likesInBatch > 0) {
+                    likeBulk.execute();
+                }
+                commentBulk.execute();
+                migratedComments += batch;
+            }
+        }
+        if (migratedComments > 0) {
+            log.info("Likes von {} Kommentaren in die Like-Collection verschoben", migratedComments);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.backend.migration;
+
+import org.example.backend.model.CityComment;
+import org.example.backend.model.Reply;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+public class ReplyMigration implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplyMigration.class);
+    private static final int BATCH_SIZE = 200;
+    private static final int PREVIEW_SIZE = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    public ReplyMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Query query = Query.query(where("replyCount").exists(false));
+        query.cursorBatchSize(BATCH_SIZE);
+
+        long migratedComments = 0;
+        long migratedReplies = 0;
+        try (Stream<CityComment> stream = mongoTemplate.stream(query, CityComment.class)) {
+            Iterator<CityComment> comments = stream.iterator();
+            while (comments.hasNext()) {
+                BulkOperations replyBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Reply.class);
+                BulkOperations commentBulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CityComment.class);
+                int batch = 0;
+                int repliesInBatch = 0;
+                while (comments.hasNext() && batch < BATCH_SIZE) {
+                    CityComment comment = comments.next();
+                    List<Reply> replies = Optional.ofNullable(comment.getReplies()).orElse(List.of()).stream()
+                            .sorted(Comparator.comparing(Reply::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                            .toList();
+                    for (Reply reply : replies) {
+                        reply.setCommentId(comment.getId());
+                        if (reply.getId() == null) {
+                            reply.setId(UUID.randomUUID().toString());
+                        }
+                        replyBulk.replaceOne(Query.query(where("_id").is(reply.getId())), reply,
+                                FindAndReplaceOptions.options().upsert());
+                        repliesInBatch++;
+                    }
+                    List<Reply> preview = replies.subList(Math.max(0, replies.size() - PREVIEW_SIZE), replies.size());
+                    commentBulk.updateOne(Query.query(where("_id").is(comment.getId())),
+                            new Update().set("replies", preview).set("replyCount", replies.size()));
+                    batch++;
+                }
+                if (repliesInBatch > 0) {
+                    replyBulk.execute();
+                }
+                commentBulk.execute();
+                migratedComments += batch;
+                migratedReplies += repliesInBatch;
+            }
+        }
+        if (migratedComments > 0) {
+            log.info("{} Antworten aus {} Kommentaren in die Antwort-Collection verschoben", migratedReplies, migratedComments);
+        }
+    }
+}
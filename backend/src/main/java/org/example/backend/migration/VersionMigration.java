@@ -0,0 +1,46 @@
+package org.example.backend.migration;
+
+import com.mongodb.client.result.UpdateResult;
+import org.example.backend.model.AppUser;
+import org.example.backend.model.CityComment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+@Order(40)
+public class VersionMigration implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public VersionMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long comments = initialize(CityComment.class);
+        long users = initialize(AppUser.class);
+        if (comments > 0 || users > 0) {
+            log.info("Versionsfeld initialisiert: {} Kommentare, {} User", comments, users);
+        }
+    }
+
+    private long initialize(Class<?> type) {
+        UpdateResult result = mongoTemplate.updateMulti(
+                Query.query(where("version").exists(false)),
+                new Update().set("version", 0L),
+                type);
+        return result.getModifiedCount();
+    }
+}
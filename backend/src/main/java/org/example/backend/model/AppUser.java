@@ -2,6 +2,7 @@ package org.example.backend.model;
 
 import lombok.Builder;
 import lombok.Data;
+import org.springframework.data.annotation.Version;
 
 import java.util.List;
 
@@ -15,4 +16,7 @@ public class AppUser {
     private List<String> favoriteCities;
     private List<String> searchHistory;
     private List<FavoriteGroup> favoriteGroups;
+    private Long favoritesVersion;
+    @Version
+    private Long version;
 }
@@ -5,9 +5,12 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.Builder;
 import lombok.Data;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
 
 @Builder
 @Data
@@ -16,15 +19,33 @@ public class CityComment {
     private String id;
     @NotNull(message = "Stadtname darf nicht leer sein")
     private String cityName;
+    private String cityKey;
     @NotNull(message = "Benutzername darf nicht leer sein")
     private String username;
     @NotBlank(message = "Kommentar darf nicht leer sein")
     @Size(max = 500, message = "Kommentar darf maximal 500 Zeichen lang sein")
     private String comment;
     private String imageUrl;
+    private String imagePublicId;
+    private String thumbnailUrl;
+    private String thumbnailPublicId;
+    private String imageHash;
+    private ImageStatus imageStatus;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private Integer likesCount ;
-    private List<String> likedByUsers;
+    @Transient
+    private Boolean likedByMe;
+    private Integer replyCount;
     private List<Reply> replies;
+    @Version
+    private Long version;
+
+    public static String cityKeyOf(String cityName) {
+        return cityName == null ? null : cityName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public String photoTileUrl() {
+        return thumbnailUrl != null ? thumbnailUrl : imageUrl;
+    }
 }
@@ -0,0 +1,24 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.List;
+
+@Builder
+@Data
+@Document("city_stats")
+public class CityStats {
+    @Id
+    private String cityKey;
+    private String cityName;
+    private long favoritesCount;
+    private long commentsCount;
+    private long likesCount;
+    private long repliesCount;
+    private String firstCommentPhoto;
+    private List<String> latestPhotos;
+    private long seq;
+}
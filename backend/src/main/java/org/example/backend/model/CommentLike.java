@@ -0,0 +1,17 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@Document("comment_likes")
+public class CommentLike {
+    private String id;
+    private String commentId;
+    private String username;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,11 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class CommentSearchHit {
+    private CityComment comment;
+    private double score;
+}
@@ -0,0 +1,14 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Builder
+@Data
+public class CursorPage<T> {
+    private List<T> items;
+    private String headCursor;
+    private String nextCursor;
+}
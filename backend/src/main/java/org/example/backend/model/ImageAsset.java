@@ -0,0 +1,21 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Builder(toBuilder = true)
+@Data
+@Document("image_hashes")
+public class ImageAsset {
+    private String id;
+    private String imageUrl;
+    private String imagePublicId;
+    private String thumbnailUrl;
+    private String thumbnailPublicId;
+    private long bytes;
+    private long refCount;
+    private LocalDateTime createdAt;
+}
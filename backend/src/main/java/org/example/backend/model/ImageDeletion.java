@@ -0,0 +1,19 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@Document("image_deletions")
+public class ImageDeletion {
+    private String id;
+    private String reason;
+    private int attempts;
+    private String lastError;
+    private LocalDateTime nextAttemptAt;
+    private LocalDateTime createdAt;
+}
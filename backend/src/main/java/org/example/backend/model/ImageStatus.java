@@ -0,0 +1,7 @@
+package org.example.backend.model;
+
+public enum ImageStatus {
+    PENDING,
+    READY,
+    FAILED
+}
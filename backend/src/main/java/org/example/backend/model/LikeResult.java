@@ -0,0 +1,11 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class LikeResult {
+    private int likesCount;
+    private boolean liked;
+}
@@ -11,6 +11,7 @@ public class Notification {
     private String id;
     private String username;
     private String actor;
+    private int actorCount;
     private String type;
     private String message;
     private String targetCity;
@@ -18,4 +19,5 @@ public class Notification {
     private String replyId;
     private boolean read ;
     private LocalDateTime createdAt;
+    private LocalDateTime readAt;
 }
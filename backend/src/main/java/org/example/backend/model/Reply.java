@@ -2,13 +2,16 @@ package org.example.backend.model;
 
 import lombok.Builder;
 import lombok.Data;
+import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Builder
 @Data
+@Document("replies")
 public class Reply {
     private String id;
+    private String commentId;
     private String username;
     private String text;
     private LocalDateTime createdAt;
@@ -0,0 +1,11 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Builder
+@Data
+public class UnreadCountUpdate {
+    private long count;
+    private long delta;
+}
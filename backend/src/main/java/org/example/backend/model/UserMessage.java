@@ -0,0 +1,20 @@
+package org.example.backend.model;
+
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Builder
+@Data
+@Document("user_messages")
+public class UserMessage {
+    @Id
+    private String id;
+    private String username;
+    private String destination;
+    private String payload;
+    private LocalDateTime createdAt;
+}
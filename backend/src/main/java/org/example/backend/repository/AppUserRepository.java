@@ -1,10 +1,48 @@
 package org.example.backend.repository;
 
 import org.example.backend.model.AppUser;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
-public interface AppUserRepository extends MongoRepository<AppUser, String> {
+public interface AppUserRepository extends MongoRepository<AppUser, String>, UserMutationRepository {
+
+    String USERS_CACHE = "users";
+    String USERS_BY_ID_CACHE = "usersById";
+
+    @Cacheable(cacheNames = USERS_CACHE, unless = "#result == null")
     AppUser findByUsername(String username);
+
+    @Override
+    @Cacheable(cacheNames = USERS_BY_ID_CACHE, unless = "#result == null")
+    Optional<AppUser> findById(String id);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = USERS_CACHE, key = "#p0.username", condition = "#p0.username != null"),
+            @CacheEvict(cacheNames = USERS_BY_ID_CACHE, key = "#p0.id", condition = "#p0.id != null")
+    })
+    <S extends AppUser> S save(S user);
+
+    @Override
+    @CacheEvict(cacheNames = {USERS_CACHE, USERS_BY_ID_CACHE}, allEntries = true)
+    <S extends AppUser> List<S> saveAll(Iterable<S> users);
+
+    @Override
+    @CacheEvict(cacheNames = {USERS_CACHE, USERS_BY_ID_CACHE}, allEntries = true)
+    void deleteById(String id);
+
+    @Override
+    @CacheEvict(cacheNames = {USERS_CACHE, USERS_BY_ID_CACHE}, allEntries = true)
+    void delete(AppUser user);
+
+    @Override
+    @CacheEvict(cacheNames = {USERS_CACHE, USERS_BY_ID_CACHE}, allEntries = true)
+    void deleteAll();
 }
@@ -0,0 +1,15 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CityComment;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CityCommentBeforeConvertCallback implements BeforeConvertCallback<CityComment> {
+
+    @Override
+    public CityComment onBeforeConvert(CityComment comment, String collection) {
+        comment.setCityKey(CityComment.cityKeyOf(comment.getCityName()));
+        return comment;
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CityComment;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.model.Reply;
+
+import java.util.List;
+
+public interface CityCommentMutationRepository {
+    CityComment incrementLikes(String commentId, int delta);
+    CityComment completeImageUpload(String commentId, ImageAsset image);
+    void failImageUpload(String commentId);
+    CityComment pushReply(String commentId, Reply reply, int previewSize);
+    CityComment replaceReplyPreview(String commentId, List<Reply> preview, int replyCountDelta);
+    CityComment removeComment(String commentId);
+}
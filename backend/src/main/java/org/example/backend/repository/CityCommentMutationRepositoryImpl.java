@@ -0,0 +1,88 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CityComment;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.model.ImageStatus;
+import org.example.backend.model.Reply;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class CityCommentMutationRepositoryImpl implements CityCommentMutationRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CityCommentMutationRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public CityComment incrementLikes(String commentId, int delta) {
+        Query query = Query.query(where("_id").is(commentId));
+        query.fields().include("username", "cityName", "likesCount");
+        return mongoTemplate.findAndModify(
+                query,
+                new Update().inc("likesCount", delta).inc("version", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                CityComment.class);
+    }
+
+    @Override
+    public CityComment completeImageUpload(String commentId, ImageAsset image) {
+        Update update = new Update()
+                .set("imageUrl", image.getImageUrl())
+                .set("imagePublicId", image.getImagePublicId())
+                .set("thumbnailUrl", image.getThumbnailUrl())
+                .set("thumbnailPublicId", image.getThumbnailPublicId())
+                .set("imageHash", image.getId())
+                .set("imageStatus", ImageStatus.READY)
+                .inc("version", 1);
+        Query query = Query.query(where("_id").is(commentId));
+        query.fields().include("imageUrl", "imagePublicId", "thumbnailUrl", "thumbnailPublicId", "imageHash");
+        return mongoTemplate.findAndModify(query, update, CityComment.class);
+    }
+
+    @Override
+    public void failImageUpload(String commentId) {
+        mongoTemplate.updateFirst(
+                Query.query(where("_id").is(commentId)),
+                new Update().set("imageStatus", ImageStatus.FAILED).inc("version", 1),
+                CityComment.class);
+    }
+
+    @Override
+    public CityComment pushReply(String commentId, Reply reply, int previewSize) {
+        Update update = new Update()
+                .push("replies").slice(-previewSize).each(reply)
+                .inc("replyCount", 1)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(
+                Query.query(where("_id").is(commentId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                CityComment.class);
+    }
+
+    @Override
+    public CityComment replaceReplyPreview(String commentId, List<Reply> preview, int replyCountDelta) {
+        Update update = new Update()
+                .set("replies", preview)
+                .inc("replyCount", replyCountDelta)
+                .inc("version", 1);
+        return mongoTemplate.findAndModify(
+                Query.query(where("_id").is(commentId)),
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                CityComment.class);
+    }
+
+    @Override
+    public CityComment removeComment(String commentId) {
+        return mongoTemplate.findAndRemove(Query.query(where("_id").is(commentId)), CityComment.class);
+    }
+}
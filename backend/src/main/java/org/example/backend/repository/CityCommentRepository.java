@@ -1,13 +1,27 @@
 package org.example.backend.repository;
 
 import org.example.backend.model.CityComment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface CityCommentRepository extends MongoRepository<CityComment, String> {
-    List<CityComment> findByCityNameIgnoreCase(String cityName);
+public interface CityCommentRepository extends MongoRepository<CityComment, String>, CityCommentMutationRepository,
+        CityCommentSearchRepository {
+    List<VersionView> findVersionsByCityKeyOrderByCreatedAtDescIdDesc(String cityKey, Pageable pageable);
 
+    List<CityComment> findByCityKeyOrderByCreatedAtDescIdDesc(String cityKey, Pageable pageable);
+
+    @Query(value = "{ 'cityKey': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<CityComment> findByCityKeyBefore(String cityKey, LocalDateTime createdAt, String id, Pageable pageable);
+
+    interface VersionView {
+        String getId();
+        Long getVersion();
+    }
 }
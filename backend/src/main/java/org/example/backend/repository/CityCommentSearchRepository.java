@@ -0,0 +1,9 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CommentSearchHit;
+
+import java.util.List;
+
+public interface CityCommentSearchRepository {
+    List<CommentSearchHit> searchText(String query, String cityKey, Double beforeScore, String beforeId, int limit);
+}
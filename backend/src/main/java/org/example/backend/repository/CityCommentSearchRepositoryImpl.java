@@ -0,0 +1,53 @@
+package org.example.backend.repository;
+
+import org.bson.Document;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CommentSearchHit;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CityCommentSearchRepositoryImpl implements CityCommentSearchRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    public CityCommentSearchRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<CommentSearchHit> searchText(String query, String cityKey, Double beforeScore, String beforeId, int limit) {
+        Document textMatch = new Document("$text", new Document("$search", query));
+        if (cityKey != null) {
+            textMatch.append("cityKey", cityKey);
+        }
+
+        List<AggregationOperation> stages = new ArrayList<>();
+        stages.add(stage("$match", textMatch));
+        stages.add(stage("$addFields", new Document("score", new Document("$meta", "textScore"))));
+        if (beforeScore != null) {
+            stages.add(stage("$match", new Document("$or", List.of(
+                    new Document("score", new Document("$lt", beforeScore)),
+                    new Document("score", beforeScore).append("_id", new Document("$lt", beforeId))))));
+        }
+        stages.add(stage("$sort", new Document("score", -1).append("_id", -1)));
+        stages.add(stage("$limit", limit));
+
+        String collection = mongoTemplate.getCollectionName(CityComment.class);
+        List<CommentSearchHit> hits = new ArrayList<>();
+        for (Document doc : mongoTemplate.aggregate(Aggregation.newAggregation(stages), collection, Document.class)) {
+            hits.add(CommentSearchHit.builder()
+                    .comment(mongoTemplate.getConverter().read(CityComment.class, doc))
+                    .score(doc.getDouble("score"))
+                    .build());
+        }
+        return hits;
+    }
+
+    private static AggregationOperation stage(String operator, Object value) {
+        return context -> new Document(operator, value);
+    }
+}
@@ -0,0 +1,10 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CityStats;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CityStatsRepository extends MongoRepository<CityStats, String> {
+    boolean existsByCityNameIsNull();
+}
@@ -0,0 +1,16 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CommentLike;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CommentLikeRepository extends MongoRepository<CommentLike, String> {
+    List<CommentLike> findByUsernameAndCommentIdIn(String username, Collection<String> commentIds);
+    long countByCommentId(String commentId);
+    long deleteByCommentIdAndUsername(String commentId, String username);
+    long deleteByCommentId(String commentId);
+}
@@ -0,0 +1,15 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.Notification;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface NotificationMutationRepository {
+    int insertIgnoringDuplicates(List<Notification> notifications);
+    Notification markRead(String notificationId, LocalDateTime readAt);
+    long markAllRead(String username, LocalDateTime readAt);
+    long markReadUpTo(String username, LocalDateTime createdAt, String id, LocalDateTime readAt);
+    long markReadBetween(String username, LocalDateTime newestCreatedAt, String newestId,
+                         LocalDateTime oldestCreatedAt, String oldestId, LocalDateTime readAt);
+}
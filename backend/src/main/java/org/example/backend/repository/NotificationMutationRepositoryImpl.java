@@ -0,0 +1,102 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.Notification;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class NotificationMutationRepositoryImpl implements NotificationMutationRepository {
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public NotificationMutationRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int insertIgnoringDuplicates(List<Notification> notifications) {
+        try {
+            return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Notification.class)
+                    .insert(notifications)
+                    .execute()
+                    .getInsertedCount();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY)) {
+                return e.getResult().getInsertedCount();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Notification markRead(String notificationId, LocalDateTime readAt) {
+        return mongoTemplate.findAndModify(
+                Query.query(where("_id").is(notificationId).and("read").is(false)),
+                markReadUpdate(readAt),
+                FindAndModifyOptions.options().returnNew(true),
+                Notification.class);
+    }
+
+    @Override
+    public long markAllRead(String username, LocalDateTime readAt) {
+        return mongoTemplate.updateMulti(
+                Query.query(unread(username)),
+                markReadUpdate(readAt),
+                Notification.class).getModifiedCount();
+    }
+
+    @Override
+    public long markReadUpTo(String username, LocalDateTime createdAt, String id, LocalDateTime readAt) {
+        return mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(unread(username), atOrBefore(createdAt, id))),
+                markReadUpdate(readAt),
+                Notification.class).getModifiedCount();
+    }
+
+    @Override
+    public long markReadBetween(String username, LocalDateTime newestCreatedAt, String newestId,
+                                LocalDateTime oldestCreatedAt, String oldestId, LocalDateTime readAt) {
+        return mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(
+                        unread(username),
+                        atOrBefore(newestCreatedAt, newestId),
+                        atOrAfter(oldestCreatedAt, oldestId))),
+                markReadUpdate(readAt),
+                Notification.class).getModifiedCount();
+    }
+
+    private static Criteria atOrBefore(LocalDateTime createdAt, String id) {
+        return id == null
+                ? where("createdAt").lte(createdAt)
+                : new Criteria().orOperator(
+                        where("createdAt").lt(createdAt),
+                        where("createdAt").is(createdAt).and("_id").lte(id));
+    }
+
+    private static Criteria atOrAfter(LocalDateTime createdAt, String id) {
+        return id == null
+                ? where("createdAt").gte(createdAt)
+                : new Criteria().orOperator(
+                        where("createdAt").gt(createdAt),
+                        where("createdAt").is(createdAt).and("_id").gte(id));
+    }
+
+    private static Criteria unread(String username) {
+        return where("username").is(username).and("read").is(false);
+    }
+
+    private static Update markReadUpdate(LocalDateTime readAt) {
+        return new Update().set("read", true).set("readAt", readAt);
+    }
+}
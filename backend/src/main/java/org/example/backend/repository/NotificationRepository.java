@@ -1,14 +1,21 @@
 package org.example.backend.repository;
 
 import org.example.backend.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface NotificationRepository extends MongoRepository<Notification, String> {
-    List<Notification> findByUsernameOrderByCreatedAtDesc(String username);
+public interface NotificationRepository extends MongoRepository<Notification, String>, NotificationMutationRepository {
+    List<Notification> findByUsernameOrderByCreatedAtDescIdDesc(String username, Pageable pageable);
+
+    @Query(value = "{ 'username': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Notification> findByUsernameBefore(String username, LocalDateTime createdAt, String id, Pageable pageable);
+
     long countByUsernameAndReadFalse(String username);
-    List<Notification> findByUsernameAndReadFalseOrderByCreatedAtDesc(String username);
 }
@@ -0,0 +1,23 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.Reply;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ReplyRepository extends MongoRepository<Reply, String> {
+    List<Reply> findByCommentIdOrderByCreatedAtDescIdDesc(String commentId, Pageable pageable);
+
+    @Query(value = "{ 'commentId': ?0, '$or': [ { 'createdAt': { '$lt': ?1 } }, { 'createdAt': ?1, '_id': { '$lt': ?2 } } ] }",
+            sort = "{ 'createdAt': -1, '_id': -1 }")
+    List<Reply> findByCommentIdBefore(String commentId, LocalDateTime createdAt, String id, Pageable pageable);
+
+    long deleteByIdAndCommentIdAndUsername(String id, String commentId, String username);
+
+    long deleteByCommentId(String commentId);
+}
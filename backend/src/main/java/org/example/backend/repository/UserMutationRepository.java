@@ -0,0 +1,13 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.AppUser;
+import org.example.backend.model.FavoriteGroup;
+
+public interface UserMutationRepository {
+    AppUser addFavoriteCity(String username, String cityName);
+    AppUser removeFavoriteCity(String username, String cityName);
+    AppUser pushSearchEntry(String username, String cityName, int historySize);
+    AppUser pushGroup(String username, FavoriteGroup group);
+    AppUser pullGroup(String username, String groupName);
+    AppUser addCityToGroup(String username, String groupName, String cityName);
+}
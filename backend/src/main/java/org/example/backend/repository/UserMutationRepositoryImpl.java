@@ -0,0 +1,98 @@
+package org.example.backend.repository;
+
+import org.bson.Document;
+import org.example.backend.model.AppUser;
+import org.example.backend.model.FavoriteGroup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+public class UserMutationRepositoryImpl implements UserMutationRepository {
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+
+    public UserMutationRepositoryImpl(MongoTemplate mongoTemplate, CacheManager cacheManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public AppUser addFavoriteCity(String username, String cityName) {
+        return modify(Query.query(where("username").is(username).and("favoriteCities").ne(cityName)),
+                new Update().addToSet("favoriteCities", cityName).inc("version", 1).inc("favoritesVersion", 1));
+    }
+
+    @Override
+    public AppUser removeFavoriteCity(String username, String cityName) {
+        return modify(Query.query(where("username").is(username).and("favoriteCities").is(cityName)),
+                new Update().pull("favoriteCities", cityName).inc("version", 1).inc("favoritesVersion", 1));
+    }
+
+    @Override
+    public AppUser pushSearchEntry(String username, String cityName, int historySize) {
+        Document literal = new Document("$literal", cityName);
+        Document withoutCity = new Document("$filter", new Document()
+                .append("input", new Document("$ifNull", List.of("$searchHistory", List.of())))
+                .append("cond", new Document("$ne", List.of("$$this", literal))));
+        Document history = new Document("$slice", List.of(
+                new Document("$concatArrays", List.of(List.of(literal), withoutCity)),
+                historySize));
+        Document nextVersion = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+        return modify(Query.query(where("username").is(username)),
+                AggregationUpdate.update()
+                        .set("searchHistory").toValue((AggregationExpression) context -> history)
+                        .set("version").toValue((AggregationExpression) context -> nextVersion));
+    }
+
+    @Override
+    public AppUser pushGroup(String username, FavoriteGroup group) {
+        return modify(Query.query(where("username").is(username).and("favoriteGroups.name").ne(group.getName())),
+                new Update().push("favoriteGroups", group).inc("version", 1).inc("favoritesVersion", 1));
+    }
+
+    @Override
+    public AppUser pullGroup(String username, String groupName) {
+        return modify(Query.query(where("username").is(username)),
+                new Update().pull("favoriteGroups", new Document("name", groupName)).inc("version", 1).inc("favoritesVersion", 1));
+    }
+
+    @Override
+    public AppUser addCityToGroup(String username, String groupName, String cityName) {
+        Update update = new Update()
+                .addToSet("favoriteGroups.$[group].cities", cityName)
+                .inc("version", 1).inc("favoritesVersion", 1)
+                .filterArray(where("group.name").is(groupName));
+        return modify(Query.query(where("username").is(username).and("favoriteGroups.name").is(groupName)), update);
+    }
+
+    private AppUser modify(Query query, UpdateDefinition update) {
+        AppUser user = mongoTemplate.findAndModify(
+                query,
+                update,
+                FindAndModifyOptions.options().returnNew(true),
+                AppUser.class);
+        if (user != null) {
+            evict(AppUserRepository.USERS_CACHE, user.getUsername());
+            evict(AppUserRepository.USERS_BY_ID_CACHE, user.getId());
+        }
+        return user;
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+}
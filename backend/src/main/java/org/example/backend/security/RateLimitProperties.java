@@ -0,0 +1,20 @@
+package org.example.backend.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("rate-limit")
+public record RateLimitProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("300") int defaultLimit,
+        @DefaultValue("1m") Duration defaultPeriod,
+        @DefaultValue("10m") Duration idleTimeout,
+        @DefaultValue("100000") long maxBuckets,
+        List<Route> routes) {
+
+    public record Route(String pattern, String method, int limit, Duration period) {
+    }
+}
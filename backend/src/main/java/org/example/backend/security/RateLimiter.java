@@ -0,0 +1,94 @@
+package org.example.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+@Component
+public class RateLimiter {
+
+    private static final String DEFAULT_PATTERN = "/api/**";
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final Cache<String, TokenBucket> buckets;
+    private final LongSupplier clock;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = properties.enabled();
+        this.clock = clock;
+        List<RateLimitProperties.Route> routes = new ArrayList<>();
+        if (properties.routes() != null) {
+            routes.addAll(properties.routes());
+        }
+        routes.add(new RateLimitProperties.Route(
+                DEFAULT_PATTERN, null, properties.defaultLimit(), properties.defaultPeriod()));
+        this.rules = routes.stream().map(route -> new Rule(route, meterRegistry)).toList();
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(properties.idleTimeout())
+                .maximumSize(properties.maxBuckets())
+                .build();
+        Gauge.builder("http.rate_limit.buckets", buckets, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    public Duration acquire(String method, String path, String identity) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (Rule rule : rules) {
+            if (rule.matches(method, container)) {
+                long now = clock.getAsLong();
+                long waitNanos = buckets.get(rule.key + "|" + identity, k -> rule.newBucket(now)).tryConsume(now);
+                if (waitNanos > 0) {
+                    rule.rejected.increment();
+                }
+                return Duration.ofNanos(waitNanos);
+            }
+        }
+        return Duration.ZERO;
+    }
+
+    private static final class Rule {
+        private final String key;
+        private final String method;
+        private final PathPattern pattern;
+        private final int limit;
+        private final Duration period;
+        private final Counter rejected;
+
+        private Rule(RateLimitProperties.Route route, MeterRegistry meterRegistry) {
+            this.method = route.method();
+            this.key = (method != null ? method + " " : "") + route.pattern();
+            this.pattern = PathPatternParser.defaultInstance.parse(route.pattern());
+            this.limit = route.limit();
+            this.period = route.period();
+            this.rejected = Counter.builder("http.rate_limit.rejected")
+                    .tag("route", key)
+                    .register(meterRegistry);
+        }
+
+        private boolean matches(String requestMethod, PathContainer path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && pattern.matches(path);
+        }
+
+        private TokenBucket newBucket(long now) {
+            return new TokenBucket(limit, period, now);
+        }
+    }
+}
@@ -1,21 +1,56 @@
 package org.example.backend.security;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
+    @Bean
+    @Order(1)
+    public SecurityFilterChain prometheusSecurityFilterChain(HttpSecurity http,
+                                                             @Value("${metrics.scrape.username:prometheus}") String username,
+                                                             @Value("${metrics.scrape.password:}") String password) throws Exception {
+        http
+                .securityMatcher("/actuator/prometheus")
+                .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
+        if (password.isBlank()) {
+            http.authorizeHttpRequests(a -> a.anyRequest().denyAll());
+            return http.build();
+        }
+        InMemoryUserDetailsManager scraper = new InMemoryUserDetailsManager(
+                User.withUsername(username).password(password).roles("PROMETHEUS").build());
+        http
+                .authorizeHttpRequests(a -> a.anyRequest().hasRole("PROMETHEUS"))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationManager(new ProviderManager(new DaoAuthenticationProvider(scraper)));
+        return http.build();
+    }
+
     @SuppressWarnings("java:S4502")
     @Bean
-    public SecurityFilterChain customSecurityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain customSecurityFilterChain(HttpSecurity http,
+                                                         RateLimiter rateLimiter,
+                                                         ObjectMapper objectMapper) throws Exception {
         http
                 .csrf(csrf -> csrf
                         // CSRF is disabled for API endpoints because authentication is handled via OAuth2 login with secure cookies
@@ -24,7 +59,10 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests(a -> a
                         .requestMatchers(HttpMethod.GET,"/api/comment/{cityName}").authenticated()
+                        .requestMatchers(HttpMethod.GET,"/api/comment/{cityName}/page").authenticated()
+                        .requestMatchers(HttpMethod.GET,"/api/comment/{commentId}/replies").authenticated()
                         .requestMatchers(HttpMethod.GET,"/api/comment/getId/{id}").authenticated()
+                        .requestMatchers(HttpMethod.GET,"/api/search/comments").authenticated()
                         .requestMatchers(HttpMethod.POST,"/api/addcomment").authenticated()
                         .requestMatchers(HttpMethod.PUT,"/api/comment/{id}").authenticated()
                         .requestMatchers(HttpMethod.DELETE,"/api/comment/{id}").authenticated()
@@ -32,8 +70,10 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.POST,"/api/addToFavorites").authenticated()
                         .requestMatchers(HttpMethod.DELETE,"/api/deleteFromFav/{cityName}").authenticated()
                         .requestMatchers("/api/auth/me").authenticated()
+                        .requestMatchers("/actuator/metrics/**", "/actuator/caches/**").authenticated()
                         .anyRequest().permitAll()
                 )
+                .addFilterBefore(new RateLimitFilter(rateLimiter, objectMapper), AuthorizationFilter.class)
                 .logout(l -> l.logoutSuccessUrl("/"))
                 .oauth2Login(o -> o.defaultSuccessUrl("/search", true));
 
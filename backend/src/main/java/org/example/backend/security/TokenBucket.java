@@ -0,0 +1,34 @@
+package org.example.backend.security;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int limit, Duration period, long now) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit muss größer als 0 sein: " + limit);
+        }
+        this.intervalNanos = Math.max(1, period.toNanos() / limit);
+        this.burstNanos = intervalNanos * (limit - 1);
+        this.theoreticalArrival = new AtomicLong(now);
+    }
+
+    long tryConsume(long now) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long wait = start - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
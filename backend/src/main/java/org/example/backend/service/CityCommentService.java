@@ -1,12 +1,22 @@
 package org.example.backend.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
+import io.micrometer.core.annotation.Timed;
+import org.example.backend.exception.PreconditionFailedException;
 import org.example.backend.model.CityComment;
 import org.example.backend.model.CityCommentDTO;
+import org.example.backend.model.CommentLike;
+import org.example.backend.model.CommentSearchHit;
+import org.example.backend.model.CursorPage;
+import org.example.backend.model.ImageStatus;
+import org.example.backend.model.LikeResult;
 import org.example.backend.model.Reply;
 import org.example.backend.model.ReplyDTO;
 import org.example.backend.repository.CityCommentRepository;
+import org.example.backend.repository.CommentLikeRepository;
+import org.example.backend.repository.ReplyRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,27 +25,122 @@ import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
+@Timed("service.method")
 public class CityCommentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int REPLY_PREVIEW_SIZE = 3;
+
     private final CityCommentRepository cityCommentRepository;
     private final NotificationService notificationService;
-    private final Cloudinary cloudinary;
-
-    public CityCommentService(CityCommentRepository cityCommentRepository,  NotificationService notificationService, Cloudinary cloudinary) {
+    private final ImageUploadService imageUploadService;
+    private final CityStatsService cityStatsService;
+    private final ReplyRepository replyRepository;
+    private final CommentLikeRepository commentLikeRepository;
+    private final OptimisticRetry optimisticRetry;
+
+    public CityCommentService(CityCommentRepository cityCommentRepository,  NotificationService notificationService, ImageUploadService imageUploadService,
+                              CityStatsService cityStatsService, ReplyRepository replyRepository,
+                              CommentLikeRepository commentLikeRepository, OptimisticRetry optimisticRetry) {
         this.cityCommentRepository = cityCommentRepository;
         this.notificationService = notificationService;
-        this.cloudinary = cloudinary;
+        this.imageUploadService = imageUploadService;
+        this.cityStatsService = cityStatsService;
+        this.replyRepository = replyRepository;
+        this.commentLikeRepository = commentLikeRepository;
+        this.optimisticRetry = optimisticRetry;
     }
 
-    public List<CityComment> allComments(String cityName) {
-        List<CityComment> comments = cityCommentRepository.findByCityNameIgnoreCase(cityName);
+    public List<CityComment> allComments(String cityName, String username) {
+        List<CityComment> comments = cityCommentRepository.findByCityKeyOrderByCreatedAtDescIdDesc(
+                CityComment.cityKeyOf(cityName), PageRequest.ofSize(MAX_PAGE_SIZE));
 
         if (comments.isEmpty()) {
             throw new NoSuchElementException("Keine Kommentare gefunden für: " + cityName);
         }
+        markLikedByMe(comments, username);
         return comments;
     }
 
+    public CursorPage<CityComment> commentPage(String cityName, String cursor, int limit, String username) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        String cityKey = CityComment.cityKeyOf(cityName);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+
+        List<CityComment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = cityCommentRepository.findByCityKeyOrderByCreatedAtDescIdDesc(cityKey, pageable);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            comments = cityCommentRepository.findByCityKeyBefore(cityKey, position.createdAt(), position.id(), pageable);
+        }
+
+        String nextCursor = null;
+        if (comments.size() > pageSize) {
+            comments = comments.subList(0, pageSize);
+            CityComment last = comments.getLast();
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        markLikedByMe(comments, username);
+        return CursorPage.<CityComment>builder()
+                .items(comments)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public CursorPage<CityComment> searchComments(String query, String cityName, String cursor, int limit, String username) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Suchbegriff darf nicht leer sein");
+        }
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Double beforeScore = null;
+        String beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            CursorCodec.ScorePosition position = CursorCodec.decodeScore(cursor);
+            beforeScore = position.score();
+            beforeId = position.id();
+        }
+
+        List<CommentSearchHit> hits = cityCommentRepository.searchText(
+                query.trim(), CityComment.cityKeyOf(cityName), beforeScore, beforeId, pageSize + 1);
+
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            CommentSearchHit last = hits.getLast();
+            nextCursor = CursorCodec.encode(last.getScore(), last.getComment().getId());
+        }
+        List<CityComment> comments = hits.stream().map(CommentSearchHit::getComment).toList();
+        markLikedByMe(comments, username);
+        return CursorPage.<CityComment>builder()
+                .items(comments)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    public String commentsETag(String cityName, String username) {
+        List<CityCommentRepository.VersionView> versions =
+                cityCommentRepository.findVersionsByCityKeyOrderByCreatedAtDescIdDesc(
+                        CityComment.cityKeyOf(cityName), PageRequest.ofSize(MAX_PAGE_SIZE));
+        if (versions.isEmpty()) {
+            return null;
+        }
+        StringBuilder fingerprint = new StringBuilder(username != null ? username : "");
+        versions.forEach(v -> fingerprint.append('|').append(v.getId()).append(':').append(v.getVersion()));
+        return ETags.digest(fingerprint);
+    }
+
+    private void markLikedByMe(List<CityComment> comments, String username) {
+        if (username == null || comments.isEmpty()) {
+            return;
+        }
+        List<String> commentIds = comments.stream().map(CityComment::getId).toList();
+        Set<String> liked = new HashSet<>();
+        commentLikeRepository.findByUsernameAndCommentIdIn(username, commentIds)
+                .forEach(like -> liked.add(like.getCommentId()));
+        comments.forEach(comment -> comment.setLikedByMe(liked.contains(comment.getId())));
+    }
+
     public Optional<CityComment> getCommentById(String id) {
         return cityCommentRepository.findById(id);
     }
@@ -46,137 +151,196 @@ public class CityCommentService {
         CityComment newComment = CityComment.builder()
                 .id(id)
                 .cityName(comment.getCityName())
+                .cityKey(CityComment.cityKeyOf(comment.getCityName()))
                 .username(comment.getUsername())
                 .comment(comment.getComment())
                 .imageUrl(comment.getImageUrl())
+                .imageStatus(comment.getImageStatus())
                 .createdAt(LocalDateTime.now())
+                .likesCount(0)
+                .replyCount(0)
                 .build();
-        return cityCommentRepository.save(newComment);
+        CityComment saved = cityCommentRepository.save(newComment);
+        cityStatsService.commentAdded(saved.getCityName(), saved.photoTileUrl());
+        return saved;
     }
 
     public CityComment addCommentWithImage(CityComment comment, MultipartFile file) throws IOException {
-        String imageUrl = null;
-
-        if (file != null && !file.isEmpty()) {
-            Map uploadResult = cloudinary.uploader().upload(
-                    file.getBytes(),
-                    ObjectUtils.asMap("folder", "city-comments")
-            );
-            imageUrl = (String) uploadResult.get("secure_url");
+        if (file == null || file.isEmpty()) {
+            comment.setImageUrl(null);
+            return addComment(comment);
         }
 
-        comment.setImageUrl(imageUrl);
-        return addComment(comment);
+        ImageUploadService.PendingUpload upload = imageUploadService.prepare(file);
+        CityComment saved;
+        try {
+            comment.setImageUrl(null);
+            comment.setImageStatus(ImageStatus.PENDING);
+            saved = addComment(comment);
+        } catch (RuntimeException e) {
+            imageUploadService.cancel(upload);
+            throw e;
+        }
+        imageUploadService.start(upload, saved);
+        return saved;
     }
 
 
-    public CityComment updateComment(String id, CityCommentDTO dto, MultipartFile file) throws IOException {
+    public CityComment updateComment(String id, CityCommentDTO dto, MultipartFile file, Long expectedVersion) throws IOException {
+        if (file == null || file.isEmpty()) {
+            return optimisticRetry.run("updateComment", () -> applyUpdate(id, dto, expectedVersion, false));
+        }
+
+        ImageUploadService.PendingUpload upload = imageUploadService.prepare(file);
+        CityComment saved;
+        try {
+            saved = optimisticRetry.run("updateComment", () -> applyUpdate(id, dto, expectedVersion, true));
+        } catch (RuntimeException e) {
+            imageUploadService.cancel(upload);
+            throw e;
+        }
+        imageUploadService.start(upload, saved);
+        return saved;
+    }
+
+    private CityComment applyUpdate(String id, CityCommentDTO dto, Long expectedVersion, boolean imagePending) {
         CityComment existing = cityCommentRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Kommentar nicht gefunden: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(Objects.requireNonNullElse(existing.getVersion(), 0L))) {
+            throw new PreconditionFailedException("Kommentar wurde inzwischen geändert: " + id);
+        }
 
         existing.setComment(dto.getComment());
         existing.setUpdatedAt(LocalDateTime.now());
-
-        if (file != null && !file.isEmpty()) {
-            String newImageUrl = uploadImageToCloudinary(file);
-            existing.setImageUrl(newImageUrl);
+        if (imagePending) {
+            existing.setImageStatus(ImageStatus.PENDING);
         }
-
         return cityCommentRepository.save(existing);
     }
 
-    private String uploadImageToCloudinary(MultipartFile file) throws IOException {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> uploadResult = cloudinary.uploader().upload(
-                file.getBytes(),
-                ObjectUtils.asMap("folder", "city-comments")
-        );
-        return (String) uploadResult.get("secure_url");
-    }
-
     public void deleteCommentById(String id) {
-        if (cityCommentRepository.existsById(id)) {
-            cityCommentRepository.deleteById(id);
-        } else {
+        CityComment comment = cityCommentRepository.removeComment(id);
+        if (comment == null) {
             throw new NoSuchElementException("Keine Kommentare gefunden für: " + id);
         }
-    }
-    public CityComment toggleLike(String commentId, String username) {
-        CityComment comment = cityCommentRepository.findById(commentId)
-                .orElseThrow(() -> new RuntimeException("Kommentar nicht gefunden"));
-
-        if (comment.getLikedByUsers() == null) {
-            comment.setLikedByUsers(new ArrayList<>());
+        replyRepository.deleteByCommentId(id);
+        commentLikeRepository.deleteByCommentId(id);
+        if (comment.getImagePublicId() != null || comment.getImageHash() != null || comment.getImageUrl() != null) {
+            imageUploadService.discard(comment);
         }
-        int likes = Optional.ofNullable(comment.getLikesCount()).orElse(0);
-        comment.setLikesCount(likes);
-
-        boolean isLiked = comment.getLikedByUsers().contains(username);
-
-        if (isLiked) {
-            comment.getLikedByUsers().remove(username);
-            comment.setLikesCount(comment.getLikesCount() - 1);
-        } else {
-            comment.getLikedByUsers().add(username);
-            comment.setLikesCount(comment.getLikesCount() + 1);
-
-            if (!comment.getUsername().equals(username)) {
+        cityStatsService.commentDeleted(comment.getCityName(), comment.photoTileUrl(),
+                Objects.requireNonNullElse(comment.getLikesCount(), 0),
+                Objects.requireNonNullElse(comment.getReplyCount(), 0));
+    }
+    public LikeResult toggleLike(String commentId, String username) {
+        while (true) {
+            if (commentLikeRepository.deleteByCommentIdAndUsername(commentId, username) > 0) {
+                CityComment unliked = cityCommentRepository.incrementLikes(commentId, -1);
+                if (unliked == null) {
+                    throw new NoSuchElementException("Kommentar nicht gefunden");
+                }
+                cityStatsService.likeRemoved(unliked.getCityName());
+                return LikeResult.builder().likesCount(unliked.getLikesCount()).liked(false).build();
+            }
+            try {
+                commentLikeRepository.insert(CommentLike.builder()
+                        .commentId(commentId)
+                        .username(username)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            } catch (DuplicateKeyException e) {
+                continue;
+            }
+            CityComment liked = cityCommentRepository.incrementLikes(commentId, 1);
+            if (liked == null) {
+                commentLikeRepository.deleteByCommentIdAndUsername(commentId, username);
+                throw new NoSuchElementException("Kommentar nicht gefunden");
+            }
+            cityStatsService.likeAdded(liked.getCityName());
+            if (!username.equals(liked.getUsername())) {
                 notificationService.createNotification(
-                        comment.getUsername(),
+                        liked.getUsername(),
                         username,
                         "LIKE",
-                        comment.getCityName(),
-                        comment.getId(),
+                        liked.getCityName(),
+                        commentId,
                         null
                 );
             }
+            return LikeResult.builder().likesCount(liked.getLikesCount()).liked(true).build();
         }
-        return cityCommentRepository.save(comment);
     }
 
     public CityComment addReply(String commentId, ReplyDTO replyDTO) {
-        CityComment comment = cityCommentRepository.findById(commentId)
-                .orElseThrow(() -> new NoSuchElementException(
-                        "Kommentar mit ID " + commentId + " nicht gefunden."
-                ));
-        comment.setReplies(Optional.ofNullable(comment.getReplies()).orElse(new ArrayList<>()));
-
         Reply reply = Reply.builder()
                 .id(UUID.randomUUID().toString())
+                .commentId(commentId)
                 .username(replyDTO.getUsername())
                 .text(replyDTO.getText())
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        comment.getReplies().add(reply);
-        CityComment updatedComment = cityCommentRepository.save(comment);
+        replyRepository.save(reply);
+        CityComment updatedComment = cityCommentRepository.pushReply(commentId, reply, REPLY_PREVIEW_SIZE);
+        if (updatedComment == null) {
+            replyRepository.deleteById(reply.getId());
+            throw new NoSuchElementException("Kommentar mit ID " + commentId + " nicht gefunden.");
+        }
+        cityStatsService.replyAdded(updatedComment.getCityName());
 
-        if (!comment.getUsername().equals(replyDTO.getUsername())) {
+        if (!replyDTO.getUsername().equals(updatedComment.getUsername())) {
             notificationService.createNotification(
-                    comment.getUsername(),
+                    updatedComment.getUsername(),
                     replyDTO.getUsername(),
                     "REPLY",
-                    comment.getCityName(),
-                    comment.getId(),
+                    updatedComment.getCityName(),
+                    updatedComment.getId(),
                     reply.getId()
             );
         }
         return updatedComment;
     }
 
+    public CursorPage<Reply> replyPage(String commentId, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
 
-    public CityComment deleteReply(String commentId, String replyId, String username) {
-        CityComment comment = cityCommentRepository.findById(commentId)
-                .orElseThrow(() -> new NoSuchElementException("Kommentar nicht gefunden"));
+        List<Reply> replies;
+        if (cursor == null || cursor.isBlank()) {
+            replies = replyRepository.findByCommentIdOrderByCreatedAtDescIdDesc(commentId, pageable);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            replies = replyRepository.findByCommentIdBefore(commentId, position.createdAt(), position.id(), pageable);
+        }
 
-        List<Reply> replies = Optional.ofNullable(comment.getReplies()).orElse(new ArrayList<>());
-        boolean removed = replies.removeIf(r -> r.getId().equals(replyId) && r.getUsername().equals(username));
+        String nextCursor = null;
+        if (replies.size() > pageSize) {
+            replies = replies.subList(0, pageSize);
+            Reply last = replies.getLast();
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        return CursorPage.<Reply>builder()
+                .items(replies)
+                .nextCursor(nextCursor)
+                .build();
+    }
 
-        if (!removed) {
+    public CityComment deleteReply(String commentId, String replyId, String username) {
+        if (!cityCommentRepository.existsById(commentId)) {
+            throw new NoSuchElementException("Kommentar nicht gefunden");
+        }
+        if (replyRepository.deleteByIdAndCommentIdAndUsername(replyId, commentId, username) == 0) {
             throw new NoSuchElementException("Antwort wurde nicht gefunden oder du hast keine Berechtigung sie zu löschen.");
         }
-        comment.setReplies(replies);
-        return cityCommentRepository.save(comment);
+
+        List<Reply> preview = new ArrayList<>(replyRepository.findByCommentIdOrderByCreatedAtDescIdDesc(
+                commentId, PageRequest.ofSize(REPLY_PREVIEW_SIZE)));
+        Collections.reverse(preview);
+        CityComment updated = cityCommentRepository.replaceReplyPreview(commentId, preview, -1);
+        if (updated != null) {
+            cityStatsService.replyRemoved(updated.getCityName());
+        }
+        return updated;
     }
 
 }
@@ -0,0 +1,150 @@
+package org.example.backend.service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class CityNameTrie {
+
+    private static final int DEFAULT_TOP_K = 20;
+    private static final Comparator<Entry> BY_WEIGHT = Comparator.comparingLong(Entry::weight).reversed()
+            .thenComparing(Entry::name);
+
+    private final int topK;
+    private final Node root = new Node();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CityNameTrie() {
+        this(DEFAULT_TOP_K);
+    }
+
+    public CityNameTrie(int topK) {
+        this.topK = topK;
+    }
+
+    public void put(String cityName, long weight) {
+        String key = normalize(cityName);
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            path.push(node);
+            for (int i = 0; i < key.length(); i++) {
+                node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+                path.push(node);
+            }
+            node.names.put(cityName.trim(), weight);
+            path.forEach(this::refreshTop);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String cityName) {
+        String key = normalize(cityName);
+        if (key == null || key.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                path.push(node);
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null || node.names.remove(cityName.trim()) == null) {
+                return;
+            }
+            refreshTop(node);
+            for (int i = key.length() - 1; i >= 0; i--) {
+                Node parent = path.pop();
+                if (node.names.isEmpty() && node.children.isEmpty()) {
+                    parent.children.remove(key.charAt(i));
+                }
+                refreshTop(parent);
+                node = parent;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.names.clear();
+            root.top = List.of();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key == null || key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<Entry> matches = limit <= topK ? node.top : collect(node);
+            return matches.stream()
+                    .limit(limit)
+                    .map(Entry::name)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void refreshTop(Node node) {
+        List<Entry> candidates = new ArrayList<>();
+        node.names.forEach((name, weight) -> candidates.add(new Entry(name, weight)));
+        node.children.values().forEach(child -> candidates.addAll(child.top));
+        node.top = candidates.stream()
+                .sorted(BY_WEIGHT)
+                .limit(topK)
+                .toList();
+    }
+
+    private static List<Entry> collect(Node node) {
+        List<Entry> matches = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(node);
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            current.names.forEach((name, weight) -> matches.add(new Entry(name, weight)));
+            current.children.values().forEach(stack::push);
+        }
+        matches.sort(BY_WEIGHT);
+        return matches;
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(value.trim().toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}", "").replace("ß", "ss");
+    }
+
+    private record Entry(String name, long weight) {
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final Map<String, Long> names = new HashMap<>();
+        private List<Entry> top = List.of();
+    }
+}
@@ -0,0 +1,439 @@
+package org.example.backend.service;
+
+import com.mongodb.client.result.DeleteResult;
+import org.bson.Document;
+import org.example.backend.model.AppUser;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CityStats;
+import org.example.backend.repository.CityStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.MergeOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class CityStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(CityStatsService.class);
+    private static final int LATEST_PHOTOS = 5;
+    private static final String REBUILD_COLLECTION = "city_stats_rebuild";
+    private static final String REBUILD_LOCK = "city-stats-rebuild";
+    private static final Comparator<CityStats> RANKING_ORDER = Comparator
+            .comparingLong(CityStats::getFavoritesCount).reversed()
+            .thenComparing(CityStats::getCityKey);
+
+    private final CityStatsRepository cityStatsRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ClusterLock clusterLock;
+    private final Duration rebuildLease;
+
+    private final Map<String, CityStats> statsByCity = new ConcurrentHashMap<>();
+    private final NavigableSet<CityStats> ranking = new ConcurrentSkipListSet<>(RANKING_ORDER);
+    private final CityNameTrie cityNames = new CityNameTrie();
+    private final Map<String, Long> refreshedAt = new HashMap<>();
+    private long refreshes;
+
+    public CityStatsService(CityStatsRepository cityStatsRepository,
+                            MongoTemplate mongoTemplate,
+                            ClusterLock clusterLock,
+                            @Value("${city-stats.rebuild-lease:30m}") Duration rebuildLease) {
+        this.cityStatsRepository = cityStatsRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.clusterLock = clusterLock;
+        this.rebuildLease = rebuildLease;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (cityStatsRepository.count() == 0 || cityStatsRepository.existsByCityNameIsNull()) {
+            recompute();
+            return;
+        }
+        reload();
+    }
+
+    @Scheduled(cron = "${city-stats.rebuild-cron:0 30 3 * * *}")
+    public void recompute() {
+        if (!clusterLock.tryAcquire(REBUILD_LOCK, rebuildLease)) {
+            log.info("Stadt-Zusammenfassungen werden bereits von einer anderen Instanz neu berechnet");
+            reload();
+            return;
+        }
+        long started = System.currentTimeMillis();
+        try {
+            computeFromSource();
+            reconcile().forEach(this::evict);
+        } finally {
+            mongoTemplate.dropCollection(REBUILD_COLLECTION);
+            clusterLock.release(REBUILD_LOCK);
+        }
+        reload();
+        log.info("Stadt-Zusammenfassungen in {} ms neu berechnet", System.currentTimeMillis() - started);
+    }
+
+    public CityStats summary(String cityName) {
+        return cityStatsRepository.findById(CityComment.cityKeyOf(cityName))
+                .orElseThrow(() -> new NoSuchElementException("Keine Zusammenfassung für Stadt: " + cityName));
+    }
+
+    private void reload() {
+        long mark;
+        synchronized (this) {
+            mark = refreshes;
+        }
+        List<CityStats> all = cityStatsRepository.findAll();
+        synchronized (this) {
+            Set<String> loaded = new HashSet<>();
+            for (CityStats stats : all) {
+                loaded.add(stats.getCityKey());
+                refresh(stats);
+            }
+            List<String> gone = refreshedAt.entrySet().stream()
+                    .filter(entry -> entry.getValue() <= mark && !loaded.contains(entry.getKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+            gone.forEach(this::evict);
+        }
+    }
+
+    public void favoriteAdded(String cityName) {
+        increment(cityName, new Update().inc("favoritesCount", 1));
+    }
+
+    public void favoriteRemoved(String cityName) {
+        decrement(cityName, "favoritesCount");
+    }
+
+    public void commentAdded(String cityName, String imageUrl) {
+        Update update = new Update().inc("commentsCount", 1);
+        if (imageUrl != null) {
+            pushLatestPhoto(update, imageUrl);
+        }
+        CityStats stats = increment(cityName, update);
+        if (imageUrl != null && stats != null && stats.getFirstCommentPhoto() == null) {
+            setPhoto(cityName, imageUrl, true);
+        }
+    }
+
+    public void photoAdded(String cityName, String imageUrl) {
+        if (cityName == null || imageUrl == null) {
+            return;
+        }
+        CityStats stats = mongoTemplate.findAndModify(
+                byCity(cityName),
+                sequenced(pushLatestPhoto(new Update(), imageUrl)),
+                FindAndModifyOptions.options().returnNew(true),
+                CityStats.class);
+        refresh(stats);
+        if (stats != null && stats.getFirstCommentPhoto() == null) {
+            setPhoto(cityName, imageUrl, true);
+        }
+    }
+
+    public void photoReplaced(String cityName, String previousUrl, String imageUrl) {
+        if (cityName == null || imageUrl == null || imageUrl.equals(previousUrl)) {
+            return;
+        }
+        refresh(mongoTemplate.findAndModify(
+                byCity(cityName),
+                sequenced(new Update().pull("latestPhotos", previousUrl)),
+                FindAndModifyOptions.options().returnNew(true),
+                CityStats.class));
+        setPhoto(cityName, previousUrl, imageUrl);
+        photoAdded(cityName, imageUrl);
+    }
+
+    public void commentDeleted(String cityName, String imageUrl, long likes, long replies) {
+        if (cityName == null) {
+            return;
+        }
+        Update update = new Update()
+                .inc("commentsCount", -1)
+                .inc("likesCount", -likes)
+                .inc("repliesCount", -replies);
+        if (imageUrl != null) {
+            update.pull("latestPhotos", imageUrl);
+        }
+        CityStats stats = mongoTemplate.findAndModify(
+                byCity(cityName).addCriteria(where("commentsCount").gt(0)),
+                sequenced(update),
+                FindAndModifyOptions.options().returnNew(true),
+                CityStats.class);
+        refresh(stats);
+        if (imageUrl == null || stats == null) {
+            return;
+        }
+        if (imageUrl.equals(stats.getFirstCommentPhoto())) {
+            CityComment next = mongoTemplate.findOne(
+                    Query.query(where("cityKey").is(CityComment.cityKeyOf(cityName)).and("imageUrl").ne(null)),
+                    CityComment.class);
+            setPhoto(cityName, next != null ? next.photoTileUrl() : null, false);
+        }
+        if (stats.getLatestPhotos() != null && stats.getLatestPhotos().size() < LATEST_PHOTOS) {
+            refillLatestPhotos(cityName);
+        }
+    }
+
+    public void likeAdded(String cityName) {
+        increment(cityName, new Update().inc("likesCount", 1));
+    }
+
+    public void likeRemoved(String cityName) {
+        decrement(cityName, "likesCount");
+    }
+
+    public void replyAdded(String cityName) {
+        increment(cityName, new Update().inc("repliesCount", 1));
+    }
+
+    public void replyRemoved(String cityName) {
+        decrement(cityName, "repliesCount");
+    }
+
+    public List<Map<String, Object>> getMostPopularCities(int limit) {
+        List<Map<String, Object>> result = new ArrayList<>(limit);
+        for (CityStats stats : ranking) {
+            if (result.size() >= limit || stats.getFavoritesCount() <= 0) {
+                break;
+            }
+            Map<String, Object> cityMap = new HashMap<>();
+            cityMap.put("cityName", stats.getCityName());
+            cityMap.put("favoritesCount", stats.getFavoritesCount());
+            cityMap.put("firstCommentPhoto", stats.getFirstCommentPhoto());
+            cityMap.put("commentsCount", stats.getCommentsCount());
+            result.add(cityMap);
+        }
+        return result;
+    }
+
+    public List<String> suggestCities(String prefix, int limit) {
+        return cityNames.complete(prefix, limit);
+    }
+
+    private CityStats increment(String cityName, Update update) {
+        if (cityName == null) {
+            return null;
+        }
+        CityStats stats = mongoTemplate.findAndModify(
+                byCity(cityName),
+                sequenced(update.setOnInsert("cityName", cityName.trim())),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                CityStats.class);
+        refresh(stats);
+        return stats;
+    }
+
+    private CityStats decrement(String cityName, String field) {
+        if (cityName == null) {
+            return null;
+        }
+        CityStats stats = mongoTemplate.findAndModify(
+                byCity(cityName).addCriteria(where(field).gt(0)),
+                sequenced(new Update().inc(field, -1)),
+                FindAndModifyOptions.options().returnNew(true),
+                CityStats.class);
+        refresh(stats);
+        return stats;
+    }
+
+    private void setPhoto(String cityName, String imageUrl, boolean onlyIfMissing) {
+        Query query = byCity(cityName);
+        if (onlyIfMissing) {
+            query.addCriteria(where("firstCommentPhoto").is(null));
+        }
+        updatePhoto(query, imageUrl);
+    }
+
+    private void setPhoto(String cityName, String previousUrl, String imageUrl) {
+        updatePhoto(byCity(cityName).addCriteria(where("firstCommentPhoto").is(previousUrl)), imageUrl);
+    }
+
+    private void updatePhoto(Query query, String imageUrl) {
+        CityStats stats = mongoTemplate.findAndModify(
+                query,
+                sequenced(new Update().set("firstCommentPhoto", imageUrl)),
+                FindAndModifyOptions.options().returnNew(true),
+                CityStats.class);
+        refresh(stats);
+    }
+
+    private static Query byCity(String cityName) {
+        return Query.query(where("_id").is(CityComment.cityKeyOf(cityName)));
+    }
+
+    private static Update sequenced(Update update) {
+        return update.inc("seq", 1);
+    }
+
+    private static Update pushLatestPhoto(Update update, String imageUrl) {
+        update.push("latestPhotos").atPosition(Update.Position.FIRST).slice(LATEST_PHOTOS).each(imageUrl);
+        return update;
+    }
+
+    private void refillLatestPhotos(String cityName) {
+        Query latest = Query.query(where("cityKey").is(CityComment.cityKeyOf(cityName)).and("imageUrl").ne(null))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt"))
+                .limit(LATEST_PHOTOS);
+        latest.fields().include("imageUrl", "thumbnailUrl");
+        List<String> photos = mongoTemplate.find(latest, CityComment.class).stream()
+                .map(CityComment::photoTileUrl)
+                .toList();
+        CityStats stats = mongoTemplate.findAndModify(
+                byCity(cityName),
+                sequenced(new Update().set("latestPhotos", photos)),
+                FindAndModifyOptions.options().returnNew(true),
+                CityStats.class);
+        refresh(stats);
+    }
+
+    synchronized void refresh(CityStats stats) {
+        if (stats == null) {
+            return;
+        }
+        CityStats previous = statsByCity.get(stats.getCityKey());
+        if (previous != null) {
+            if (previous.getSeq() >= stats.getSeq()) {
+                return;
+            }
+            ranking.remove(previous);
+        }
+        statsByCity.put(stats.getCityKey(), stats);
+        refreshedAt.put(stats.getCityKey(), ++refreshes);
+        ranking.add(stats);
+        long weight = stats.getFavoritesCount() + stats.getCommentsCount();
+        if (weight > 0) {
+            cityNames.put(stats.getCityName(), weight);
+        } else {
+            cityNames.remove(stats.getCityName());
+        }
+    }
+
+    private synchronized void evict(String cityKey) {
+        CityStats previous = statsByCity.remove(cityKey);
+        refreshedAt.remove(cityKey);
+        if (previous != null) {
+            ranking.remove(previous);
+            cityNames.remove(previous.getCityName());
+        }
+    }
+
+    private void computeFromSource() {
+        AggregationOptions options = AggregationOptions.builder().allowDiskUse(true).build();
+        MergeOperation mergeIntoRebuild = Aggregation.merge()
+                .intoCollection(REBUILD_COLLECTION)
+                .on("_id")
+                .whenDocumentsMatch(MergeOperation.WhenDocumentsMatch.mergeDocuments())
+                .whenDocumentsDontMatch(MergeOperation.WhenDocumentsDontMatch.insertNewDocument())
+                .build();
+
+        Aggregation baseline = Aggregation.newAggregation(
+                Aggregation.project().and("seq").as("baseSeq"),
+                Aggregation.out(REBUILD_COLLECTION)).withOptions(options);
+        mongoTemplate.aggregate(baseline, CityStats.class, Document.class);
+        if (!mongoTemplate.collectionExists(REBUILD_COLLECTION)) {
+            mongoTemplate.createCollection(REBUILD_COLLECTION);
+        }
+
+        Aggregation favorites = Aggregation.newAggregation(
+                Aggregation.unwind("favoriteCities"),
+                Aggregation.group("favoriteCities").count().as("favoritesCount"),
+                Aggregation.match(where("_id").ne(null))).withOptions(options);
+        Map<String, String> favoriteNames = new HashMap<>();
+        Map<String, Long> favoriteCounts = new HashMap<>();
+        for (Document favorite : mongoTemplate.aggregate(favorites, AppUser.class, Document.class)) {
+            String cityName = favorite.getString("_id").trim();
+            String cityKey = CityComment.cityKeyOf(cityName);
+            if (cityKey.isEmpty()) {
+                continue;
+            }
+            favoriteNames.putIfAbsent(cityKey, cityName);
+            favoriteCounts.merge(cityKey, ((Number) favorite.get("favoritesCount")).longValue(), Long::sum);
+        }
+        if (!favoriteCounts.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, REBUILD_COLLECTION);
+            favoriteCounts.forEach((cityKey, count) -> bulk.upsert(
+                    Query.query(where("_id").is(cityKey)),
+                    new Update().set("cityName", favoriteNames.get(cityKey)).set("favoritesCount", count)));
+            bulk.execute();
+        }
+
+        Aggregation comments = Aggregation.newAggregation(
+                Aggregation.match(where("cityKey").ne(null)),
+                Aggregation.sort(Sort.Direction.ASC, "createdAt"),
+                Aggregation.group("cityKey")
+                        .first("cityName").as("cityName")
+                        .count().as("commentsCount")
+                        .sum("likesCount").as("likesCount")
+                        .sum("replyCount").as("repliesCount"),
+                mergeIntoRebuild).withOptions(options);
+        mongoTemplate.aggregate(comments, CityComment.class, Document.class);
+
+        Document tileUrl = new Document("$ifNull", List.of("$thumbnailUrl", "$imageUrl"));
+        Aggregation photos = Aggregation.newAggregation(
+                Aggregation.match(where("cityKey").ne(null).and("imageUrl").ne(null)),
+                Aggregation.sort(Sort.Direction.DESC, "createdAt"),
+                stage("$group", new Document("_id", "$cityKey")
+                        .append("latestPhotos", new Document("$firstN",
+                                new Document("input", tileUrl).append("n", LATEST_PHOTOS)))
+                        .append("firstCommentPhoto", new Document("$last", tileUrl))),
+                mergeIntoRebuild).withOptions(options);
+        mongoTemplate.aggregate(photos, CityComment.class, Document.class);
+    }
+
+    private List<String> reconcile() {
+        Document currentSeq = new Document("$ifNull", List.of("$seq", 0));
+        Document unchanged = new Document("$eq", List.of(currentSeq, new Document("$ifNull", List.of("$$new.baseSeq", 0))));
+        Document rebuilt = new Document("$mergeObjects", List.of(
+                new Document("$unsetField", new Document("field", "baseSeq").append("input", "$$new")),
+                new Document("seq", new Document("$add", List.of(currentSeq, 1)))));
+        Aggregation merge = Aggregation.newAggregation(
+                Aggregation.match(new Criteria().orOperator(
+                        where("favoritesCount").exists(true), where("commentsCount").exists(true))),
+                stage("$merge", new Document("into", mongoTemplate.getCollectionName(CityStats.class))
+                        .append("on", "_id")
+                        .append("whenMatched", List.of(new Document("$replaceWith",
+                                new Document("$cond", List.of(unchanged, rebuilt, "$$ROOT")))))
+                        .append("whenNotMatched", "insert")))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+        mongoTemplate.aggregate(merge, REBUILD_COLLECTION, Document.class);
+
+        List<String> removed = new ArrayList<>();
+        Query withoutSource = Query.query(new Criteria().andOperator(
+                where("favoritesCount").exists(false), where("commentsCount").exists(false)));
+        for (Document stale : mongoTemplate.find(withoutSource, Document.class, REBUILD_COLLECTION)) {
+            Object baseSeq = stale.get("baseSeq");
+            DeleteResult result = mongoTemplate.remove(Query.query(where("_id").is(stale.get("_id"))
+                            .and("seq").is(baseSeq)),
+                    CityStats.class);
+            if (result.getDeletedCount() > 0) {
+                removed.add(String.valueOf(stale.get("_id")));
+            }
+        }
+        return removed;
+    }
+
+    private static AggregationOperation stage(String operator, Object value) {
+        return context -> new Document(operator, value);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.backend.service;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Component
+public class ClusterLock {
+
+    private static final String COLLECTION = "cluster_locks";
+
+    private final MongoTemplate mongoTemplate;
+    private final String owner = UUID.randomUUID().toString();
+
+    public ClusterLock(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public boolean tryAcquire(String name, Duration lease) {
+        Instant now = Instant.now();
+        Query free = Query.query(new Criteria().andOperator(
+                where("_id").is(name),
+                new Criteria().orOperator(where("lockedUntil").lte(now), where("owner").is(owner))));
+        try {
+            mongoTemplate.upsert(free,
+                    new Update().set("owner", owner).set("lockedAt", now).set("lockedUntil", now.plus(lease)),
+                    COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public void release(String name) {
+        mongoTemplate.updateFirst(
+                Query.query(where("_id").is(name).and("owner").is(owner)),
+                new Update().set("lockedUntil", Instant.now()),
+                COLLECTION);
+    }
+}
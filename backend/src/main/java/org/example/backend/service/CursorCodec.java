@@ -0,0 +1,62 @@
+package org.example.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public final class CursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    public static String encode(LocalDateTime createdAt, String id) {
+        if (createdAt == null || id == null) {
+            return null;
+        }
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String encode(double score, String id) {
+        if (id == null) {
+            return null;
+        }
+        String raw = score + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Position decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Ungültiger Cursor: " + cursor);
+            }
+            return new Position(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Ungültiger Cursor: " + cursor, e);
+        }
+    }
+
+    public static ScorePosition decodeScore(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator < 0) {
+            throw new IllegalArgumentException("Ungültiger Cursor: " + cursor);
+        }
+        try {
+            return new ScorePosition(Double.parseDouble(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Ungültiger Cursor: " + cursor, e);
+        }
+    }
+
+    public record Position(LocalDateTime createdAt, String id) {
+    }
+
+    public record ScorePosition(double score, String id) {
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.backend.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.example.backend.model.AppUser;
 import org.example.backend.model.FavoriteGroup;
 import org.example.backend.repository.AppUserRepository;
@@ -11,6 +12,7 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 
 @Service
+@Timed("service.method")
 public class FavoriteGroupService {
     private final AppUserRepository appUserRepository;
 
@@ -24,55 +26,42 @@ public class FavoriteGroupService {
         return Optional.ofNullable(user.getFavoriteGroups()).orElse(new ArrayList<>());
     }
 
-    public FavoriteGroup addGroup(String username, String groupName) {
+    public String groupsETag(String username) {
         AppUser user = appUserRepository.findByUsername(username);
         if (user == null) throw new NoSuchElementException("Kein User gefunden für: " + username);
+        return ETags.of(user.getFavoritesVersion());
+    }
 
-        List<FavoriteGroup> groups = Optional.ofNullable(user.getFavoriteGroups()).orElseGet(ArrayList::new);
-        user.setFavoriteGroups(groups);
-
+    public FavoriteGroup addGroup(String username, String groupName) {
         FavoriteGroup newGroup = FavoriteGroup.builder()
                 .name(groupName)
                 .cities(new ArrayList<>())
                 .build();
 
-        groups.add(newGroup);
-        appUserRepository.save(user);
+        if (appUserRepository.pushGroup(username, newGroup) == null) {
+            if (appUserRepository.findByUsername(username) == null) throw new NoSuchElementException("Kein User gefunden für: " + username);
+            throw new IllegalArgumentException("Gruppe existiert bereits: " + groupName);
+        }
         return newGroup;
     }
 
 
     public void deleteGroup(String username, String groupName) {
-        AppUser user = appUserRepository.findByUsername(username);
-        if (user == null) throw new NoSuchElementException("Kein User gefunden für: " + username);
-
-        List<FavoriteGroup> groups = Optional.ofNullable(user.getFavoriteGroups()).orElse(new ArrayList<>());
-        boolean removed = groups.removeIf(g -> g.getName().equals(groupName));
-
-        if (removed) {
-            user.setFavoriteGroups(groups);
-            appUserRepository.save(user);
+        if (appUserRepository.pullGroup(username, groupName) == null) {
+            throw new NoSuchElementException("Kein User gefunden für: " + username);
         }
     }
 
     public FavoriteGroup addCityToGroup(String username, String groupName, String city) {
-        AppUser user = appUserRepository.findByUsername(username);
-        if (user == null) throw new NoSuchElementException("Kein User gefunden für: " + username);
+        AppUser user = appUserRepository.addCityToGroup(username, groupName, city);
+        if (user == null) {
+            if (appUserRepository.findByUsername(username) == null) throw new NoSuchElementException("Kein User gefunden für: " + username);
+            throw new NoSuchElementException("Gruppe nicht gefunden: " + groupName);
+        }
 
-        FavoriteGroup group = Optional.ofNullable(user.getFavoriteGroups())
-                .orElseThrow(() -> new NoSuchElementException("Keine Gruppen für User: " + username))
-                .stream()
+        return user.getFavoriteGroups().stream()
                 .filter(g -> g.getName().equals(groupName))
                 .findFirst()
                 .orElseThrow(() -> new NoSuchElementException("Gruppe nicht gefunden: " + groupName));
-
-        List<String> cities = Optional.ofNullable(group.getCities()).orElse(new ArrayList<>());
-        if (!cities.contains(city)) {
-            cities.add(city);
-            group.setCities(cities);
-            appUserRepository.save(user);
-        }
-
-        return group;
     }
 }
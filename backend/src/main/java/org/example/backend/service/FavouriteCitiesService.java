@@ -1,27 +1,33 @@
 package org.example.backend.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.example.backend.model.AppUser;
-import org.example.backend.model.CityComment;
 import org.example.backend.repository.AppUserRepository;
-import org.example.backend.repository.CityCommentRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
+@Timed("service.method")
 public class FavouriteCitiesService {
 
     private final AppUserRepository appUserRepository;
 
-    private final CityCommentRepository cityCommentRepository;
+    private final CityStatsService cityStatsService;
 
     private static final String USER_NOT_FOUND_MESSAGE = "Kein User gefunden für: ";
+    private static final int SEARCH_HISTORY_SIZE = 10;
 
 
-    public FavouriteCitiesService(AppUserRepository appUserRepository,  CityCommentRepository cityCommentRepository) {
+    public FavouriteCitiesService(AppUserRepository appUserRepository, CityStatsService cityStatsService) {
         this.appUserRepository = appUserRepository;
-        this.cityCommentRepository = cityCommentRepository;
+        this.cityStatsService = cityStatsService;
+    }
+
+    public String favoritesETag(String username) {
+        AppUser user = Optional.ofNullable(appUserRepository.findByUsername(username))
+                .orElseThrow(() -> new NoSuchElementException(USER_NOT_FOUND_MESSAGE + username));
+        return ETags.of(user.getFavoritesVersion());
     }
 
     public List<String> getFavouriteList(String username) {
@@ -33,69 +39,28 @@ public class FavouriteCitiesService {
         String username = body.get("username");
         String cityName = body.get("cityName");
 
-        AppUser user = appUserRepository.findByUsername(username);
-        if (user == null) {
-            throw new NoSuchElementException(USER_NOT_FOUND_MESSAGE + username);
+        AppUser updated = appUserRepository.addFavoriteCity(username, cityName);
+        if (updated != null) {
+            cityStatsService.favoriteAdded(cityName);
+            return updated;
         }
-        if (user.getFavoriteCities() == null) {
-            user.setFavoriteCities(new ArrayList<>());
-        }
-        if (!user.getFavoriteCities().contains(cityName)) {
-            user.getFavoriteCities().add(cityName);
-            appUserRepository.save(user);
-        }
-        return user;
+        return Optional.ofNullable(appUserRepository.findByUsername(username))
+                .orElseThrow(() -> new NoSuchElementException(USER_NOT_FOUND_MESSAGE + username));
     }
 
     public AppUser deleteFromFavourits(String cityName, String username) {
-        AppUser user = Optional.ofNullable(appUserRepository.findByUsername(username))
-                .orElseThrow(() -> new NoSuchElementException(USER_NOT_FOUND_MESSAGE + username));
-
-        if (user.getFavoriteCities() != null) {
-            user.getFavoriteCities().removeIf(city -> city.equals(cityName));
-            appUserRepository.save(user);
+        AppUser updated = appUserRepository.removeFavoriteCity(username, cityName);
+        if (updated != null) {
+            cityStatsService.favoriteRemoved(cityName);
+            return updated;
         }
-        return user;
+        return Optional.ofNullable(appUserRepository.findByUsername(username))
+                .orElseThrow(() -> new NoSuchElementException(USER_NOT_FOUND_MESSAGE + username));
     }
 
 
     public List<Map<String, Object>> getMostPopularCities(int limit) {
-        List<AppUser> users = appUserRepository.findAll();
-        List<CityComment> comments = cityCommentRepository.findAll();
-
-        Map<String, Long> cityCountMap = users.stream()
-                .filter(user -> user.getFavoriteCities() != null)
-                .flatMap(user -> user.getFavoriteCities().stream())
-                .collect(Collectors.groupingBy(city -> city, Collectors.counting()));
-
-        Map<String, List<CityComment>> commentsByCity = comments.stream()
-                .collect(Collectors.groupingBy(CityComment::getCityName));
-
-        return cityCountMap.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(limit)
-                .map(entry -> {
-                    String cityName = entry.getKey();
-                    long favoritesCount = entry.getValue();
-
-                    List<CityComment> cityComments = commentsByCity.getOrDefault(cityName, List.of());
-
-                    Optional<String> firstCommentPhoto = cityComments.stream()
-                            .filter(c -> c.getImageUrl() != null)
-                            .map(CityComment::getImageUrl)
-                            .findFirst();
-
-                    long commentsCount = cityComments.size();
-
-                    Map<String, Object> cityMap = new HashMap<>();
-                    cityMap.put("cityName", cityName);
-                    cityMap.put("favoritesCount", favoritesCount);
-                    cityMap.put("firstCommentPhoto", firstCommentPhoto.orElse(null));
-                    cityMap.put("commentsCount", commentsCount);
-
-                    return cityMap;
-                })
-                .toList();
+        return cityStatsService.getMostPopularCities(limit);
     }
 
 
@@ -107,21 +72,9 @@ public class FavouriteCitiesService {
     }
 
     public List<String> addSearchEntry(String username, String cityName) {
-        AppUser user = Optional.ofNullable(appUserRepository.findByUsername(username))
+        AppUser user = Optional.ofNullable(appUserRepository.pushSearchEntry(username, cityName, SEARCH_HISTORY_SIZE))
                 .orElseThrow(() -> new NoSuchElementException(USER_NOT_FOUND_MESSAGE + username));
-
-        List<String> history = Optional.ofNullable(user.getSearchHistory())
-                .orElse(new ArrayList<>());
-
-        history.remove(cityName);
-        history.add(0, cityName);
-
-        if (history.size() > 10) {
-            history = new ArrayList<>(history.subList(0, 10));
-        }
-        user.setSearchHistory(history);
-        appUserRepository.save(user);
-        return history;
+        return user.getSearchHistory();
     }
 
 }
\ No newline at end of file
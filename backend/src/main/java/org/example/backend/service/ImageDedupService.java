@@ -0,0 +1,130 @@
+package org.example.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.backend.model.ImageAsset;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class ImageDedupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDedupService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, ImageAsset> assets;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final Counter bytesSaved;
+
+    public ImageDedupService(MongoTemplate mongoTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${images.dedup.cache-size:10000}") long cacheSize,
+                             @Value("${images.dedup.cache-ttl:1h}") Duration cacheTtl) {
+        this.mongoTemplate = mongoTemplate;
+        this.assets = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(cacheTtl)
+                .build();
+        FunctionCounter.builder("images.dedup.hits", hits, AtomicLong::get).register(meterRegistry);
+        FunctionCounter.builder("images.dedup.misses", misses, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("images.dedup.hit.ratio", this, ImageDedupService::hitRatio).register(meterRegistry);
+        this.bytesSaved = Counter.builder("images.dedup.bytes.saved")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public ImageAsset acquire(String hash) {
+        ImageAsset cached = assets.getIfPresent(hash);
+        if (cached != null) {
+            if (mongoTemplate.updateFirst(Query.query(where("_id").is(hash)),
+                    new Update().inc("refCount", 1), ImageAsset.class).getModifiedCount() > 0) {
+                return hit(cached);
+            }
+            assets.invalidate(hash);
+        }
+        ImageAsset stored = mongoTemplate.findAndModify(
+                Query.query(where("_id").is(hash)),
+                new Update().inc("refCount", 1),
+                FindAndModifyOptions.options().returnNew(true),
+                ImageAsset.class);
+        if (stored == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        assets.put(hash, stored);
+        return hit(stored);
+    }
+
+    public ImageAsset register(ImageAsset asset) {
+        ImageAsset registered = asset.toBuilder()
+                .refCount(1)
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            mongoTemplate.insert(registered);
+            assets.put(registered.getId(), registered);
+            return registered;
+        } catch (DuplicateKeyException e) {
+            ImageAsset winner = mongoTemplate.findAndModify(
+                    Query.query(where("_id").is(asset.getId())),
+                    new Update().inc("refCount", 1),
+                    FindAndModifyOptions.options().returnNew(true),
+                    ImageAsset.class);
+            if (winner == null) {
+                throw e;
+            }
+            log.info("Bild {} wurde parallel hochgeladen, vorhandene Kopie {} wird verwendet",
+                    asset.getId(), winner.getImagePublicId());
+            assets.put(winner.getId(), winner);
+            return winner;
+        }
+    }
+
+    public ImageAsset release(String hash) {
+        if (hash == null) {
+            return null;
+        }
+        ImageAsset remaining = mongoTemplate.findAndModify(
+                Query.query(where("_id").is(hash).and("refCount").gt(0)),
+                new Update().inc("refCount", -1),
+                FindAndModifyOptions.options().returnNew(true),
+                ImageAsset.class);
+        if (remaining == null || remaining.getRefCount() > 0) {
+            return null;
+        }
+        assets.invalidate(hash);
+        return mongoTemplate.findAndRemove(
+                Query.query(where("_id").is(hash).and("refCount").lte(0)),
+                ImageAsset.class);
+    }
+
+    private ImageAsset hit(ImageAsset asset) {
+        hits.incrementAndGet();
+        bytesSaved.increment(asset.getBytes());
+        return asset;
+    }
+
+    private double hitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+}
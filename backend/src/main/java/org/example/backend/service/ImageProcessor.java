@@ -0,0 +1,258 @@
+package org.example.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.FileImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+
+@Component
+public class ImageProcessor {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageProcessor.class);
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+    private static final Set<String> HEIF_BRANDS = Set.of("heic", "heix", "hevc", "hevx", "heim", "heis", "mif1", "msf1", "avif", "avis");
+
+    private final int fullWidth;
+    private final int thumbnailWidth;
+    private final float quality;
+    private final long maxPixels;
+
+    public ImageProcessor(@Value("${images.processing.full-width:1600}") int fullWidth,
+                          @Value("${images.processing.thumbnail-width:400}") int thumbnailWidth,
+                          @Value("${images.processing.quality:0.82}") float quality,
+                          @Value("${images.processing.max-pixels:50000000}") long maxPixels) {
+        this.fullWidth = fullWidth;
+        this.thumbnailWidth = thumbnailWidth;
+        this.quality = quality;
+        this.maxPixels = maxPixels;
+    }
+
+    public ProcessedImage process(Path source) throws IOException {
+        BufferedImage decoded = decode(source);
+        if (decoded == null) {
+            return keepOriginal(source);
+        }
+        BufferedImage full = scaleToWidth(orient(decoded, readOrientation(source)), fullWidth);
+        Path fullFile = null;
+        Path thumbnailFile = null;
+        try {
+            fullFile = Files.createTempFile("city-comment-", "-full.jpg");
+            writeJpeg(full, fullFile);
+            BufferedImage thumbnail = scaleToWidth(full, thumbnailWidth);
+            thumbnailFile = Files.createTempFile("city-comment-", "-thumb.jpg");
+            writeJpeg(thumbnail, thumbnailFile);
+            return new ProcessedImage(fullFile, thumbnailFile);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(fullFile);
+            deleteQuietly(thumbnailFile);
+            throw e;
+        }
+    }
+
+    private BufferedImage decode(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                if (isUndecodableImage(source)) {
+                    return null;
+                }
+                throw new IOException("Nicht unterstütztes Bildformat");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int subsampling = Math.max(1, width / (fullWidth * 2));
+                if ((long) (width / subsampling) * (height / subsampling) > maxPixels) {
+                    throw new IOException("Bild ist zu groß: " + width + "x" + height);
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ProcessedImage keepOriginal(Path source) throws IOException {
+        log.info("Bildformat von {} nicht dekodierbar, Original wird unverändert gespeichert", source);
+        Path original = Files.createTempFile("city-comment-", "-original");
+        try {
+            Files.copy(source, original, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(original);
+            throw e;
+        }
+        return new ProcessedImage(original, null);
+    }
+
+    static boolean isUndecodableImage(Path source) {
+        byte[] header;
+        try (InputStream in = Files.newInputStream(source)) {
+            header = in.readNBytes(12);
+        } catch (IOException e) {
+            return false;
+        }
+        if (header.length < 12) {
+            return false;
+        }
+        String box = new String(header, 4, 4, StandardCharsets.US_ASCII);
+        String brand = new String(header, 8, 4, StandardCharsets.US_ASCII);
+        if (box.equals("ftyp")) {
+            return HEIF_BRANDS.contains(brand);
+        }
+        return new String(header, 0, 4, StandardCharsets.US_ASCII).equals("RIFF") && brand.equals("WEBP");
+    }
+
+    private static BufferedImage scaleToWidth(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            if (width > current.getWidth()) {
+                width = current.getWidth();
+            }
+            int height = Math.max(1, (int) Math.round((double) current.getHeight() * width / current.getWidth()));
+            current = redraw(current, width, height, null);
+        } while (current.getWidth() > targetWidth);
+        return current;
+    }
+
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swapped = orientation != 3;
+        return redraw(image, swapped ? height : width, swapped ? width : height, transform);
+    }
+
+    private static BufferedImage redraw(BufferedImage source, int width, int height, AffineTransform transform) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            if (transform != null) {
+                g.drawImage(source, transform, null);
+            } else {
+                g.drawImage(source, 0, 0, width, height, null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (FileImageOutputStream out = new FileImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    static int readOrientation(Path source) {
+        try (InputStream raw = Files.newInputStream(source);
+             DataInputStream in = new DataInputStream(raw)) {
+            if (in.readUnsignedShort() != 0xFFD8) {
+                return 1;
+            }
+            while (true) {
+                int marker = in.readUnsignedShort();
+                int length = in.readUnsignedShort() - 2;
+                if (marker == 0xFFE1) {
+                    int orientation = orientationFromExif(in.readNBytes(length));
+                    if (orientation > 0) {
+                        return orientation;
+                    }
+                    continue;
+                }
+                if (marker == 0xFFDA || (marker & 0xFF00) != 0xFF00) {
+                    return 1;
+                }
+                in.skipNBytes(length);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("EXIF-Ausrichtung von {} nicht lesbar", source, e);
+            return 1;
+        }
+    }
+
+    private static int orientationFromExif(byte[] segment) {
+        if (segment.length < 14 || !new String(segment, 0, 4, StandardCharsets.US_ASCII).equals("Exif")) {
+            return 0;
+        }
+        ByteBuffer tiff = ByteBuffer.wrap(segment, 6, segment.length - 6).slice();
+        tiff.order(tiff.getShort(0) == 0x4949 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        int ifd = tiff.getInt(4);
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == EXIF_ORIENTATION_TAG) {
+                return Short.toUnsignedInt(tiff.getShort(entry + 8));
+            }
+        }
+        return 1;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Temporäre Datei {} konnte nicht gelöscht werden", file, e);
+        }
+    }
+
+    public record ProcessedImage(Path full, Path thumbnail) {
+
+        public void delete() {
+            deleteQuietly(full);
+            deleteQuietly(thumbnail);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.backend.cloudinary.ImageStorage;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.model.ImageDeletion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@Service
+public class ImageReclaimer {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageReclaimer.class);
+    private static final Pattern CLOUDINARY_URL =
+            Pattern.compile("https?://res\\.cloudinary\\.com/[^/]+/image/upload/(?:v\\d+/)?(.+?)(?:\\.\\w+)?");
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+
+    private final MongoTemplate mongoTemplate;
+    private final ImageStorage imageStorage;
+    private final ImageDedupService imageDedupService;
+    private final int batchSize;
+    private final int maxPerRun;
+    private final Duration pauseBetweenBatches;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final boolean dryRun;
+    private final Counter deleted;
+    private final Counter failed;
+
+    public ImageReclaimer(MongoTemplate mongoTemplate,
+                          ImageStorage imageStorage,
+                          ImageDedupService imageDedupService,
+                          MeterRegistry meterRegistry,
+                          @Value("${images.reclaim.batch-size:100}") int batchSize,
+                          @Value("${images.reclaim.max-per-run:500}") int maxPerRun,
+                          @Value("${images.reclaim.pause-between-batches:2s}") Duration pauseBetweenBatches,
+                          @Value("${images.reclaim.max-attempts:10}") int maxAttempts,
+                          @Value("${images.reclaim.retry-backoff:1m}") Duration retryBackoff,
+                          @Value("${images.reclaim.dry-run:false}") boolean dryRun) {
+        this.mongoTemplate = mongoTemplate;
+        this.imageStorage = imageStorage;
+        this.imageDedupService = imageDedupService;
+        this.batchSize = Math.clamp(batchSize, 1, 100);
+        this.maxPerRun = maxPerRun;
+        this.pauseBetweenBatches = pauseBetweenBatches;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.dryRun = dryRun;
+        this.deleted = Counter.builder("images.reclaim.deleted").register(meterRegistry);
+        this.failed = Counter.builder("images.reclaim.failed").register(meterRegistry);
+    }
+
+    public void release(CityComment comment, String reason) {
+        if (comment == null) {
+            return;
+        }
+        if (comment.getImageHash() != null) {
+            ImageAsset unused = imageDedupService.release(comment.getImageHash());
+            if (unused != null) {
+                enqueue(reason, unused.getImagePublicId(), unused.getThumbnailPublicId());
+            }
+            return;
+        }
+        String imagePublicId = comment.getImagePublicId() != null
+                ? comment.getImagePublicId()
+                : legacyPublicId(comment.getImageUrl());
+        enqueue(reason, imagePublicId, comment.getThumbnailPublicId());
+    }
+
+    static String legacyPublicId(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        Matcher matcher = CLOUDINARY_URL.matcher(imageUrl);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
+
+    public void enqueue(String reason, String... publicIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Stream.of(publicIds).filter(Objects::nonNull).forEach(publicId -> mongoTemplate.upsert(
+                Query.query(where("_id").is(publicId)),
+                new Update()
+                        .setOnInsert("reason", reason)
+                        .setOnInsert("attempts", 0)
+                        .setOnInsert("nextAttemptAt", now)
+                        .setOnInsert("createdAt", now),
+                ImageDeletion.class));
+    }
+
+    @Scheduled(fixedDelayString = "${images.reclaim.interval-ms:60000}", initialDelayString = "${images.reclaim.interval-ms:60000}")
+    public void reclaim() {
+        int processed = 0;
+        while (processed < maxPerRun) {
+            List<ImageDeletion> batch = dueBatch(Math.min(batchSize, maxPerRun - processed));
+            if (batch.isEmpty()) {
+                return;
+            }
+            processed += batch.size();
+            process(batch);
+            if (dryRun) {
+                return;
+            }
+            if (!pause()) {
+                return;
+            }
+        }
+    }
+
+    private List<ImageDeletion> dueBatch(int limit) {
+        Query due = Query.query(where("nextAttemptAt").lte(LocalDateTime.now()).and("attempts").lt(maxAttempts))
+                .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"))
+                .limit(limit);
+        return mongoTemplate.find(due, ImageDeletion.class);
+    }
+
+    void process(List<ImageDeletion> batch) {
+        List<String> ids = batch.stream().map(ImageDeletion::getId).toList();
+        Set<String> stillReferenced = stillReferenced(ids);
+        if (!stillReferenced.isEmpty()) {
+            log.info("{} Bilder werden wieder verwendet und nicht gelöscht", stillReferenced.size());
+            if (!dryRun) {
+                mongoTemplate.remove(Query.query(where("_id").in(stillReferenced)), ImageDeletion.class);
+            }
+        }
+        List<String> candidates = new ArrayList<>(ids);
+        candidates.removeAll(stillReferenced);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        if (dryRun) {
+            log.info("Probelauf: {} verwaiste Bilder würden gelöscht: {}", candidates.size(), candidates);
+            return;
+        }
+
+        Set<String> removed;
+        try {
+            removed = imageStorage.delete(candidates);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Löschen von {} verwaisten Bildern fehlgeschlagen, neuer Versuch später", candidates.size(), e);
+            batch.stream().filter(d -> candidates.contains(d.getId())).forEach(d -> retryLater(d, e.getMessage()));
+            return;
+        }
+        if (!removed.isEmpty()) {
+            mongoTemplate.remove(Query.query(where("_id").in(removed)), ImageDeletion.class);
+            deleted.increment(removed.size());
+        }
+        batch.stream()
+                .filter(d -> candidates.contains(d.getId()) && !removed.contains(d.getId()))
+                .forEach(d -> retryLater(d, "nicht gelöscht"));
+    }
+
+    private Set<String> stillReferenced(List<String> publicIds) {
+        Set<String> referenced = new HashSet<>();
+        Criteria inComments = new Criteria().orOperator(
+                where("imagePublicId").in(publicIds), where("thumbnailPublicId").in(publicIds));
+        Query comments = Query.query(inComments);
+        comments.fields().include("imagePublicId", "thumbnailPublicId");
+        mongoTemplate.find(comments, CityComment.class)
+                .forEach(c -> Stream.of(c.getImagePublicId(), c.getThumbnailPublicId()).forEach(referenced::add));
+        Query assets = Query.query(new Criteria().orOperator(
+                where("imagePublicId").in(publicIds), where("thumbnailPublicId").in(publicIds)));
+        mongoTemplate.find(assets, ImageAsset.class)
+                .forEach(a -> Stream.of(a.getImagePublicId(), a.getThumbnailPublicId()).forEach(referenced::add));
+        referenced.retainAll(publicIds);
+        return referenced;
+    }
+
+    private void retryLater(ImageDeletion deletion, String error) {
+        int attempts = deletion.getAttempts() + 1;
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts, 16));
+        if (backoff.compareTo(MAX_BACKOFF) > 0) {
+            backoff = MAX_BACKOFF;
+        }
+        failed.increment();
+        if (attempts >= maxAttempts) {
+            log.warn("Bild {} konnte nach {} Versuchen nicht gelöscht werden: {}", deletion.getId(), attempts, error);
+        }
+        mongoTemplate.updateFirst(
+                Query.query(where("_id").is(deletion.getId())),
+                new Update()
+                        .set("attempts", attempts)
+                        .set("lastError", error)
+                        .set("nextAttemptAt", LocalDateTime.now().plus(backoff)),
+                ImageDeletion.class);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseBetweenBatches);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
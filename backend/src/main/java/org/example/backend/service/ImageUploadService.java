@@ -0,0 +1,209 @@
+package org.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.backend.cloudinary.ImageStorage;
+import org.example.backend.cloudinary.StoredImage;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.repository.CityCommentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class ImageUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageUploadService.class);
+
+    private final ImageStorage imageStorage;
+    private final ImageProcessor imageProcessor;
+    private final ImageDedupService imageDedupService;
+    private final ImageReclaimer imageReclaimer;
+    private final CityCommentRepository cityCommentRepository;
+    private final CityStatsService cityStatsService;
+    private final Semaphore capacity;
+    private final ExecutorService executor;
+
+    public ImageUploadService(ImageStorage imageStorage,
+                              ImageProcessor imageProcessor,
+                              ImageDedupService imageDedupService,
+                              ImageReclaimer imageReclaimer,
+                              CityCommentRepository cityCommentRepository,
+                              CityStatsService cityStatsService,
+                              @Value("${images.upload.threads:4}") int threads,
+                              @Value("${images.upload.queue-capacity:32}") int queueCapacity,
+                              @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.imageStorage = imageStorage;
+        this.imageProcessor = imageProcessor;
+        this.imageDedupService = imageDedupService;
+        this.imageReclaimer = imageReclaimer;
+        this.cityCommentRepository = cityCommentRepository;
+        this.cityStatsService = cityStatsService;
+        this.capacity = new Semaphore(threads + queueCapacity);
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("image-upload-", 1).factory()
+                : Thread.ofPlatform().name("image-upload-", 1).daemon(true).factory();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+    }
+
+    public PendingUpload prepare(MultipartFile file) throws IOException {
+        if (!capacity.tryAcquire()) {
+            throw new RejectedExecutionException("Zu viele Bild-Uploads gleichzeitig, bitte später erneut versuchen.");
+        }
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile("city-comment-", ".upload");
+            MessageDigest sha256 = sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+                Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return new PendingUpload(spooled, HexFormat.of().formatHex(sha256.digest()));
+        } catch (IOException | RuntimeException e) {
+            if (spooled != null) {
+                deleteQuietly(spooled);
+            }
+            capacity.release();
+            throw e;
+        }
+    }
+
+    public void start(PendingUpload upload, CityComment comment) {
+        String commentId = comment.getId();
+        String cityName = comment.getCityName();
+        Runnable task = () -> {
+            ImageAsset asset;
+            CityComment previous;
+            try {
+                asset = store(upload);
+                previous = cityCommentRepository.completeImageUpload(commentId, asset);
+            } catch (Exception e) {
+                log.warn("Bild-Upload für Kommentar {} fehlgeschlagen", commentId, e);
+                cityCommentRepository.failImageUpload(commentId);
+                return;
+            } finally {
+                release(upload);
+            }
+            try {
+                if (previous == null) {
+                    imageReclaimer.release(CityComment.builder().imageHash(asset.getId()).build(), "comment-deleted");
+                    return;
+                }
+                imageReclaimer.release(previous, "replaced");
+                if (previous.photoTileUrl() != null) {
+                    cityStatsService.photoReplaced(cityName, previous.photoTileUrl(), asset.getThumbnailUrl());
+                } else {
+                    cityStatsService.photoAdded(cityName, asset.getThumbnailUrl());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Nacharbeiten nach Bild-Upload für Kommentar {} fehlgeschlagen, Bild bleibt gespeichert", commentId, e);
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            release(upload);
+            cityCommentRepository.failImageUpload(commentId);
+            throw e;
+        }
+    }
+
+    private ImageAsset store(PendingUpload upload) throws IOException {
+        ImageAsset asset = imageDedupService.acquire(upload.sha256());
+        if (asset != null) {
+            return asset;
+        }
+        ImageAsset uploaded = processAndUpload(upload);
+        asset = imageDedupService.register(uploaded);
+        if (!Objects.equals(asset.getImagePublicId(), uploaded.getImagePublicId())) {
+            imageReclaimer.enqueue("duplicate", uploaded.getImagePublicId(), uploaded.getThumbnailPublicId());
+        }
+        return asset;
+    }
+
+    private ImageAsset processAndUpload(PendingUpload upload) throws IOException {
+        ImageProcessor.ProcessedImage processed = imageProcessor.process(upload.file());
+        try {
+            StoredImage full = imageStorage.upload(processed.full());
+            if (processed.thumbnail() == null) {
+                return ImageAsset.builder()
+                        .id(upload.sha256())
+                        .imageUrl(full.getUrl())
+                        .imagePublicId(full.getPublicId())
+                        .thumbnailUrl(full.getUrl())
+                        .thumbnailPublicId(full.getPublicId())
+                        .bytes(Files.size(processed.full()))
+                        .build();
+            }
+            StoredImage thumbnail = imageStorage.upload(processed.thumbnail());
+            return ImageAsset.builder()
+                    .id(upload.sha256())
+                    .imageUrl(full.getUrl())
+                    .imagePublicId(full.getPublicId())
+                    .thumbnailUrl(thumbnail.getUrl())
+                    .thumbnailPublicId(thumbnail.getPublicId())
+                    .bytes(Files.size(processed.full()) + Files.size(processed.thumbnail()))
+                    .build();
+        } finally {
+            processed.delete();
+        }
+    }
+
+    public void discard(CityComment comment) {
+        imageReclaimer.release(comment, "comment-deleted");
+    }
+
+    public void cancel(PendingUpload upload) {
+        release(upload);
+    }
+
+    private void release(PendingUpload upload) {
+        deleteQuietly(upload.file());
+        capacity.release();
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Temporäre Datei {} konnte nicht gelöscht werden", file, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    public record PendingUpload(Path file, String sha256) {
+    }
+}
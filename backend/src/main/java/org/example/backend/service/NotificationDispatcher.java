@@ -0,0 +1,186 @@
+package org.example.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.backend.messaging.UserMessageSender;
+import org.example.backend.model.Notification;
+import org.example.backend.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationRepository notificationRepository;
+    private final UserMessageSender messageSender;
+    private final UnreadCountService unreadCountService;
+    private final int batchSize;
+    private final int maxBuffered;
+
+    private final Map<CoalesceKey, Pending> buffer = new ConcurrentHashMap<>();
+    private final Deque<Notification> retries = new ArrayDeque<>();
+    private volatile int retrying;
+    private final AtomicLong dropped = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("notification-flush").daemon(true).factory());
+
+    public NotificationDispatcher(NotificationRepository notificationRepository,
+                                  UserMessageSender messageSender,
+                                  UnreadCountService unreadCountService,
+                                  @Value("${notifications.dispatch.batch-size:500}") int batchSize,
+                                  @Value("${notifications.dispatch.max-buffered:10000}") int maxBuffered) {
+        this.notificationRepository = notificationRepository;
+        this.messageSender = messageSender;
+        this.unreadCountService = unreadCountService;
+        this.batchSize = batchSize;
+        this.maxBuffered = maxBuffered;
+    }
+
+    public void enqueue(Notification notification) {
+        CoalesceKey key = new CoalesceKey(notification.getUsername(), notification.getType(), notification.getCommentId());
+        if (!buffer.containsKey(key) && buffer.size() + retrying >= maxBuffered) {
+            dropped.incrementAndGet();
+            return;
+        }
+        buffer.compute(key, (k, pending) -> (pending == null ? new Pending(notification) : pending).add(notification));
+        if (buffer.size() >= batchSize && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                try {
+                    flush();
+                } finally {
+                    flushRequested.set(false);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.dispatch.interval-ms:1000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            long lost = dropped.getAndSet(0);
+            if (lost > 0) {
+                log.warn("{} Benachrichtigungen verworfen, Puffer mit {} Einträgen ist voll", lost, maxBuffered);
+            }
+            List<Notification> notifications = new ArrayList<>(retries);
+            for (CoalesceKey key : buffer.keySet()) {
+                Pending pending = buffer.remove(key);
+                if (pending != null) {
+                    notifications.add(pending.toNotification());
+                }
+            }
+            if (notifications.isEmpty()) {
+                return;
+            }
+
+            if (unreadCountService != null) {
+                unreadCountService.beginChange();
+            }
+            try {
+                if (store(notifications)) {
+                    push(notifications);
+                }
+            } finally {
+                if (unreadCountService != null) {
+                    unreadCountService.endChange();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private boolean store(List<Notification> notifications) {
+        try {
+            notificationRepository.insertIgnoringDuplicates(notifications);
+        } catch (RuntimeException e) {
+            log.warn("{} Benachrichtigungen konnten nicht gespeichert werden, neuer Versuch beim nächsten Flush",
+                    notifications.size(), e);
+            retries.clear();
+            retries.addAll(notifications);
+            while (retries.size() > maxBuffered) {
+                retries.removeFirst();
+                dropped.incrementAndGet();
+            }
+            retrying = retries.size();
+            return false;
+        }
+        retries.clear();
+        retrying = 0;
+        return true;
+    }
+
+    private void push(List<Notification> notifications) {
+        Map<String, List<Notification>> byRecipient = new LinkedHashMap<>();
+        notifications.forEach(n -> byRecipient.computeIfAbsent(n.getUsername(), u -> new ArrayList<>()).add(n));
+        byRecipient.forEach((recipient, batch) -> {
+            if (unreadCountService != null) {
+                unreadCountService.increment(recipient, batch.size());
+            }
+            if (messageSender != null) {
+                messageSender.sendToUser(recipient, "/queue/notifications", batch);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private record CoalesceKey(String recipient, String type, String commentId) {
+    }
+
+    private static final class Pending {
+        private final String id = UUID.randomUUID().toString();
+        private final Notification first;
+        private final LinkedHashSet<String> actors = new LinkedHashSet<>();
+        private String replyId;
+        private LocalDateTime createdAt;
+
+        private Pending(Notification first) {
+            this.first = first;
+        }
+
+        private Pending add(Notification notification) {
+            actors.remove(notification.getActor());
+            actors.add(notification.getActor());
+            replyId = notification.getReplyId();
+            createdAt = notification.getCreatedAt();
+            return this;
+        }
+
+        private Notification toNotification() {
+            String latestActor = actors.getLast();
+            return Notification.builder()
+                    .id(id)
+                    .username(first.getUsername())
+                    .actor(latestActor)
+                    .actorCount(actors.size())
+                    .type(first.getType())
+                    .targetCity(first.getTargetCity())
+                    .commentId(first.getCommentId())
+                    .replyId(replyId)
+                    .message(NotificationService.buildMessage(latestActor, actors.size() - 1, first.getType()))
+                    .read(false)
+                    .createdAt(createdAt)
+                    .build();
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package org.example.backend.service;
 
+import io.micrometer.core.annotation.Timed;
+import org.example.backend.model.CursorPage;
 import org.example.backend.model.Notification;
 import org.example.backend.repository.NotificationRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -10,14 +13,21 @@ import java.util.List;
 import java.util.UUID;
 
 @Service
+@Timed("service.method")
 public class NotificationService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final NotificationRepository notificationRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final NotificationDispatcher notificationDispatcher;
+    private final UnreadCountService unreadCountService;
 
     public NotificationService(NotificationRepository notificationRepository,
-                               SimpMessagingTemplate messagingTemplate) {
+                               NotificationDispatcher notificationDispatcher,
+                               UnreadCountService unreadCountService) {
         this.notificationRepository = notificationRepository;
-        this.messagingTemplate = messagingTemplate;
+        this.notificationDispatcher = notificationDispatcher;
+        this.unreadCountService = unreadCountService;
     }
 
     public Notification createNotification(String recipient, String actor, String type,
@@ -26,48 +36,113 @@ public class NotificationService {
                 .id(UUID.randomUUID().toString())
                 .username(recipient)
                 .actor(actor)
+                .actorCount(1)
                 .type(type)
                 .targetCity(targetCity)
                 .commentId(commentId)
                 .replyId(replyId)
-                .message(buildMessage(actor, type))
+                .message(buildMessage(actor, 0, type))
                 .read(false)
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        Notification saved = notificationRepository.save(n);
-
-        if (messagingTemplate != null) {
-            messagingTemplate.convertAndSendToUser(recipient, "/queue/notifications", saved);
-        }
-
-        return saved;
+        notificationDispatcher.enqueue(n);
+        return n;
     }
 
-    private String buildMessage(String actor, String type) {
+    static String buildMessage(String actor, int others, String type) {
+        if (others > 0) {
+            String actors = actor + " und " + others + (others == 1 ? " weitere Person" : " weitere");
+            if ("REPLY".equals(type)) return actors + " haben auf dein Kommentar geantwortet";
+            if ("LIKE".equals(type)) return actors + " haben auf dein Kommentar reagiert";
+            return actors + " haben etwas gemacht";
+        }
         if ("REPLY".equals(type)) return actor + " hat auf dein Kommentar geantwortet";
         if ("LIKE".equals(type)) return actor + " hat auf dein Kommentar reagiert";
         return actor + " hat etwas gemacht";
     }
 
-    public List<Notification> getNotifications(String username) {
-        return notificationRepository.findByUsernameOrderByCreatedAtDesc(username);
+    public CursorPage<Notification> notificationPage(String username, String cursor, int limit) {
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+        Pageable pageable = PageRequest.ofSize(pageSize + 1);
+
+        List<Notification> notifications;
+        if (cursor == null || cursor.isBlank()) {
+            notifications = notificationRepository.findByUsernameOrderByCreatedAtDescIdDesc(username, pageable);
+        } else {
+            CursorCodec.Position position = CursorCodec.decode(cursor);
+            notifications = notificationRepository.findByUsernameBefore(username, position.createdAt(), position.id(), pageable);
+        }
+
+        String nextCursor = null;
+        if (notifications.size() > pageSize) {
+            notifications = notifications.subList(0, pageSize);
+            Notification last = notifications.getLast();
+            nextCursor = CursorCodec.encode(last.getCreatedAt(), last.getId());
+        }
+        String headCursor = notifications.isEmpty()
+                ? null
+                : CursorCodec.encode(notifications.getFirst().getCreatedAt(), notifications.getFirst().getId());
+        return CursorPage.<Notification>builder()
+                .items(notifications)
+                .headCursor(headCursor)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     public long countUnread(String username) {
-        return notificationRepository.countByUsernameAndReadFalse(username);
+        return unreadCountService.get(username);
     }
 
     public void markAsRead(String notificationId) {
-        notificationRepository.findById(notificationId).ifPresent(n -> {
-            n.setRead(true);
-            notificationRepository.save(n);
-        });
+        unreadCountService.beginChange();
+        try {
+            Notification read = notificationRepository.markRead(notificationId, LocalDateTime.now());
+            if (read != null) {
+                unreadCountService.decrement(read.getUsername(), 1);
+            }
+        } finally {
+            unreadCountService.endChange();
+        }
+    }
+
+    public long markAllAsRead(String username) {
+        unreadCountService.beginChange();
+        try {
+            long modified = notificationRepository.markAllRead(username, LocalDateTime.now());
+            unreadCountService.decrement(username, modified);
+            return modified;
+        } finally {
+            unreadCountService.endChange();
+        }
     }
 
-    public void markAllAsRead(String username) {
-        List<Notification> list = notificationRepository.findByUsernameAndReadFalseOrderByCreatedAtDesc(username);
-        list.forEach(n -> n.setRead(true));
-        notificationRepository.saveAll(list);
+    public long markReadUpTo(String username, String newest, String oldest, LocalDateTime upTo) {
+        unreadCountService.beginChange();
+        try {
+            long modified = markRead(username, newest, oldest, upTo);
+            unreadCountService.decrement(username, modified);
+            return modified;
+        } finally {
+            unreadCountService.endChange();
+        }
+    }
+
+    private long markRead(String username, String newest, String oldest, LocalDateTime upTo) {
+        long modified;
+        if (newest != null && !newest.isBlank() && oldest != null && !oldest.isBlank()) {
+            CursorCodec.Position from = CursorCodec.decode(newest);
+            CursorCodec.Position to = CursorCodec.decode(oldest);
+            modified = notificationRepository.markReadBetween(username, from.createdAt(), from.id(),
+                    to.createdAt(), to.id(), LocalDateTime.now());
+        } else if (newest != null && !newest.isBlank()) {
+            CursorCodec.Position position = CursorCodec.decode(newest);
+            modified = notificationRepository.markReadUpTo(username, position.createdAt(), position.id(), LocalDateTime.now());
+        } else if (upTo != null) {
+            modified = notificationRepository.markReadUpTo(username, upTo, null, LocalDateTime.now());
+        } else {
+            throw new IllegalArgumentException("Cursor oder Zeitpunkt erforderlich");
+        }
+        return modified;
     }
 }
@@ -0,0 +1,65 @@
+package org.example.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+@Component
+public class OptimisticRetry {
+
+    private static final Logger log = LoggerFactory.getLogger(OptimisticRetry.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final Duration backoff;
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+                           @Value("${optimistic-retry.max-attempts:5}") int maxAttempts,
+                           @Value("${optimistic-retry.backoff:5ms}") Duration backoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoff = backoff;
+    }
+
+    public <T> T run(String operation, Supplier<T> action) {
+        counter("optimistic.lock.calls", operation).increment();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    counter("optimistic.lock.exhausted", operation).increment();
+                    log.warn("{}: Versionskonflikt nach {} Versuchen nicht aufgelöst", operation, attempt);
+                    throw e;
+                }
+                counter("optimistic.lock.retries", operation).increment();
+                pause(attempt);
+            }
+        }
+    }
+
+    private Counter counter(String name, String operation) {
+        return meterRegistry.counter(name, "operation", operation);
+    }
+
+    private void pause(int attempt) {
+        long maxMillis = backoff.toMillis() << Math.min(attempt - 1, 6);
+        if (maxMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Unterbrochen beim Warten auf erneuten Versuch", e);
+        }
+    }
+}
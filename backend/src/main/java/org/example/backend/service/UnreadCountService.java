@@ -0,0 +1,115 @@
+package org.example.backend.service;
+
+import org.example.backend.messaging.UserMessageSender;
+import org.example.backend.model.UnreadCountUpdate;
+import org.example.backend.model.UserMessage;
+import org.example.backend.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class UnreadCountService {
+
+    private static final String DESTINATION = "/queue/unread-count";
+
+    private final NotificationRepository notificationRepository;
+    private final UserMessageSender messageSender;
+    private final Duration maxAge;
+
+    private final Map<String, Counter> counts = new ConcurrentHashMap<>();
+    private final AtomicInteger changesInFlight = new AtomicInteger();
+    private final AtomicLong changeSeq = new AtomicLong();
+
+    public UnreadCountService(NotificationRepository notificationRepository,
+                              UserMessageSender messageSender,
+                              @Value("${websocket.broker.mode:simple}") String brokerMode,
+                              @Value("${notifications.unread.relay-max-age:10s}") Duration relayMaxAge) {
+        this.notificationRepository = notificationRepository;
+        this.messageSender = messageSender;
+        this.maxAge = "relay".equals(brokerMode) ? relayMaxAge : null;
+    }
+
+    public long get(String username) {
+        long now = System.currentTimeMillis();
+        Counter counter = counts.get(username);
+        if (counter != null && fresh(counter, now)) {
+            return counter.value;
+        }
+        if (counter != null) {
+            counts.remove(username, counter);
+        }
+        return seed(username, now);
+    }
+
+    public void beginChange() {
+        changesInFlight.incrementAndGet();
+    }
+
+    public void endChange() {
+        changeSeq.incrementAndGet();
+        changesInFlight.decrementAndGet();
+    }
+
+    public void increment(String username, long delta) {
+        apply(username, delta);
+    }
+
+    public void decrement(String username, long delta) {
+        apply(username, -delta);
+    }
+
+    private long seed(String username, long now) {
+        long seq = changeSeq.get();
+        boolean quiet = changesInFlight.get() == 0;
+        long value = notificationRepository.countByUsernameAndReadFalse(username);
+        Counter counter = new Counter(value, now);
+        if (quiet && counts.putIfAbsent(username, counter) == null
+                && (changesInFlight.get() != 0 || changeSeq.get() != seq)) {
+            counts.remove(username, counter);
+        }
+        return value;
+    }
+
+    private boolean fresh(Counter counter, long now) {
+        return maxAge == null || now - counter.loadedAt < maxAge.toMillis();
+    }
+
+    private void apply(String username, long delta) {
+        if (username == null || delta == 0) {
+            return;
+        }
+        Counter counter = counts.computeIfPresent(username,
+                (u, current) -> new Counter(Math.max(0, current.value + delta), current.loadedAt));
+        if (messageSender != null) {
+            messageSender.sendToUser(username, DESTINATION, UnreadCountUpdate.builder()
+                    .count(counter != null ? counter.value : get(username))
+                    .delta(delta)
+                    .build());
+        }
+    }
+
+    @EventListener
+    public void onUserMessage(UserMessage message) {
+        if (DESTINATION.equals(message.getDestination())) {
+            changeSeq.incrementAndGet();
+            counts.remove(message.getUsername());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notifications.unread.resync-interval-ms:300000}")
+    public void resync() {
+        changeSeq.incrementAndGet();
+        counts.clear();
+    }
+
+    private record Counter(long value, long loadedAt) {
+    }
+}
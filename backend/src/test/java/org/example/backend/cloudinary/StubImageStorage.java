@@ -0,0 +1,70 @@
+package org.example.backend.cloudinary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StubImageStorage implements ImageStorage {
+
+    private final List<byte[]> uploads = new CopyOnWriteArrayList<>();
+    private final List<String> deleted = new CopyOnWriteArrayList<>();
+    private final CountDownLatch release;
+    private final Duration latency;
+
+    public StubImageStorage() {
+        this(new CountDownLatch(0), Duration.ZERO);
+    }
+
+    public StubImageStorage(CountDownLatch release) {
+        this(release, Duration.ZERO);
+    }
+
+    public StubImageStorage(Duration latency) {
+        this(new CountDownLatch(0), latency);
+    }
+
+    private StubImageStorage(CountDownLatch release, Duration latency) {
+        this.release = release;
+        this.latency = latency;
+    }
+
+    @Override
+    public StoredImage upload(Path file) throws IOException {
+        try {
+            if (!release.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("Stub-Upload nicht freigegeben");
+            }
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        uploads.add(Files.readAllBytes(file));
+        int number = uploads.size();
+        return StoredImage.builder()
+                .url("https://stub.local/city-comments/" + number + ".jpg")
+                .publicId("city-comments/" + number)
+                .build();
+    }
+
+    @Override
+    public Set<String> delete(List<String> publicIds) {
+        deleted.addAll(publicIds);
+        return new HashSet<>(publicIds);
+    }
+
+    public List<byte[]> getUploads() {
+        return uploads;
+    }
+
+    public List<String> getDeleted() {
+        return deleted;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class DropOldestSubProtocolWebSocketHandlerTest {
+
+    @Test
+    void slowSession_shouldDropOldestFramesInsteadOfClosing() throws Exception {
+        DropOldestSubProtocolWebSocketHandler handler = new DropOldestSubProtocolWebSocketHandler(
+                new ExecutorSubscribableChannel(), new ExecutorSubscribableChannel());
+        handler.setSendTimeLimit(60_000);
+        handler.setSendBufferSizeLimit(100);
+
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(session).sendMessage(any());
+
+        WebSocketSession decorated = handler.decorateSession(session);
+        Thread slowSend = Thread.ofPlatform().start(() -> {
+            try {
+                decorated.sendMessage(new TextMessage("first"));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 20; i++) {
+            decorated.sendMessage(new TextMessage("frame-" + "x".repeat(30) + i));
+        }
+
+        assertThat(handler.openSessions()).isEqualTo(1);
+        assertThat(handler.laggingSessions()).isEqualTo(1);
+        assertThat(handler.maxBufferSize()).isLessThanOrEqualTo(100);
+        verify(session, never()).close(any(CloseStatus.class));
+
+        release.countDown();
+        slowSend.join();
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.backend.config;
+
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MongoCommandSizeListenerTest {
+
+    @Test
+    void recordsCommandAndReplySizesPerCollection() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        MongoCommandSizeListener listener = new MongoCommandSizeListener(registry);
+
+        BsonDocument command = new BsonDocument("find", new BsonString("cityComment"))
+                .append("filter", new BsonDocument("cityKey", new BsonString("berlin")));
+        CommandStartedEvent started = mock(CommandStartedEvent.class);
+        when(started.getRequestId()).thenReturn(7);
+        when(started.getCommandName()).thenReturn("find");
+        when(started.getCommand()).thenReturn(command);
+
+        BsonDocument reply = new BsonDocument("ok", new BsonInt32(1));
+        CommandSucceededEvent succeeded = mock(CommandSucceededEvent.class);
+        when(succeeded.getRequestId()).thenReturn(7);
+        when(succeeded.getCommandName()).thenReturn("find");
+        when(succeeded.getResponse()).thenReturn(reply);
+
+        listener.commandStarted(started);
+        listener.commandSucceeded(succeeded);
+
+        DistributionSummary commandSize = registry.get("mongodb.driver.command.size")
+                .tag("collection", "cityComment").tag("command", "find").summary();
+        DistributionSummary replySize = registry.get("mongodb.driver.reply.size")
+                .tag("collection", "cityComment").tag("command", "find").summary();
+        assertThat(commandSize.count()).isEqualTo(1);
+        assertThat(commandSize.totalAmount()).isGreaterThan(replySize.totalAmount());
+        assertThat(replySize.totalAmount()).isPositive();
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PinningAuditTest {
+
+    static class BlockingInsideLock {
+        private final Object lock = new Object();
+        private final List<String> lines = new ArrayList<>();
+
+        byte[] readWhileLocked(Path file) throws IOException {
+            synchronized (lock) {
+                return Files.readAllBytes(file);
+            }
+        }
+
+        synchronized byte[] readInSynchronizedMethod(Path file) throws IOException {
+            return Files.readAllBytes(file);
+        }
+
+        byte[] readOutsideLock(Path file) throws IOException {
+            byte[] content = Files.readAllBytes(file);
+            synchronized (lock) {
+                lines.add(new String(content));
+            }
+            return content;
+        }
+    }
+
+    @Test
+    void inspect_shouldReportBlockingCallsInsideSynchronizedRegions() throws IOException {
+        List<PinningAudit.Finding> findings = new PinningAudit().inspect(BlockingInsideLock.class);
+
+        assertThat(findings)
+                .extracting(PinningAudit.Finding::methodName)
+                .containsExactlyInAnyOrder("readWhileLocked", "readInSynchronizedMethod");
+        assertThat(findings.getFirst().blockingCalls()).contains("java.nio.file.Files.readAllBytes");
+    }
+
+    @Test
+    void scan_shouldFindNoPinningInApplicationCode() throws IOException {
+        List<PinningAudit.Finding> findings = new PinningAudit().scan("classpath*:org/example/backend/**/*.class");
+
+        assertThat(findings)
+                .filteredOn(finding -> !finding.className().startsWith(PinningAuditTest.class.getName()))
+                .isEmpty();
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.backend.controller;
 
+import com.jayway.jsonpath.JsonPath;
 import org.example.backend.model.CityComment;
 import org.example.backend.repository.CityCommentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,12 +9,17 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.client.AutoConfigureMockRestServiceServer;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.LocalDateTime;
+
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -58,6 +64,66 @@ class CityCommentControllerTest {
                 ));
     }
 
+    @Test
+    @WithMockUser
+    void getCommentsByCity_shouldOnlyReturnTheNewestHundred() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        for (int i = 0; i < 101; i++) {
+            cityCommentRepository.save(CityComment.builder().id("c" + i).comment("Kommentar " + i)
+                    .cityName("Berlin").createdAt(now.plusMinutes(i)).build());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}", "Berlin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(100))
+                .andExpect(jsonPath("$[0].id").value("c100"))
+                .andExpect(jsonPath("$[99].id").value("c1"));
+    }
+
+    @Test
+    @WithMockUser
+    void getCommentPage_shouldPageWithCursor() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        cityCommentRepository.save(CityComment.builder().id("1").comment("Alt").cityName("Berlin").createdAt(now.minusHours(2)).build());
+        cityCommentRepository.save(CityComment.builder().id("2").comment("Mitte").cityName("berlin").createdAt(now.minusHours(1)).build());
+        cityCommentRepository.save(CityComment.builder().id("3").comment("Neu").cityName("BERLIN").createdAt(now).build());
+        cityCommentRepository.save(CityComment.builder().id("4").comment("Andere Stadt").cityName("Paris").createdAt(now).build());
+
+        String firstPage = mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}/page", "Berlin")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value("3"))
+                .andExpect(jsonPath("$.items[1].id").value("2"))
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+
+        String cursor = JsonPath.read(firstPage, "$.nextCursor");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}/page", "Berlin")
+                        .param("limit", "2")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value("1"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser
+    void getCommentPage_withInvalidCursor_shouldReturn400() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}/page", "Berlin")
+                        .param("cursor", "kaputt"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void getReplies_withoutLogin_shouldNotReturnReplies() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{commentId}/replies", "1"))
+                .andExpect(status().is3xxRedirection());
+    }
+
     @Test
     @WithMockUser
     void getCommentById() throws Exception {
@@ -175,6 +241,88 @@ class CityCommentControllerTest {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.comment").value("Testing"));
     }
 
+    @Test
+    @WithMockUser
+    void getCommentsByCity_withMatchingETag_shouldReturnNotModified() throws Exception {
+        CityComment saved = cityCommentRepository.save(CityComment.builder().id("1").comment("Test").cityName("Berlin").build());
+
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}", "Berlin"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}", "Berlin")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        saved.setComment("Geändert");
+        cityCommentRepository.save(saved);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/comment/{cityName}", "Berlin")
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].comment").value("Geändert"));
+    }
+
+    @Test
+    @WithMockUser
+    void updateComment_withStaleIfMatch_shouldReturnPreconditionFailed() throws Exception {
+        cityCommentRepository.save(CityComment.builder().id("1").cityName("Berlin").comment("Test").build());
+
+        MockMultipartFile data = new MockMultipartFile(
+                "data",
+                "",
+                "application/json",
+                """
+                {
+                  "comment": "Testing"
+                }
+                """.getBytes()
+        );
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/api/comment/{id}", "1")
+                        .file(data)
+                        .header(HttpHeaders.IF_MATCH, "\"5\"")
+                        .with(csrf())
+                        .with(request -> { request.setMethod("PUT"); return request; })
+                )
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/api/comment/{id}", "1")
+                        .file(data)
+                        .header(HttpHeaders.IF_MATCH, "\"0\"")
+                        .with(csrf())
+                        .with(request -> { request.setMethod("PUT"); return request; })
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
+    @Test
+    @WithMockUser
+    void updateComment_withWeakIfMatch_shouldReturnPreconditionFailed() throws Exception {
+        cityCommentRepository.save(CityComment.builder().id("1").cityName("Berlin").comment("Test").build());
+
+        MockMultipartFile data = new MockMultipartFile(
+                "data",
+                "",
+                "application/json",
+                """
+                {
+                  "comment": "Testing"
+                }
+                """.getBytes()
+        );
+
+        mockMvc.perform(MockMvcRequestBuilders.multipart("/api/comment/{id}", "1")
+                        .file(data)
+                        .header(HttpHeaders.IF_MATCH, "W/\"0\"")
+                        .with(csrf())
+                        .with(request -> { request.setMethod("PUT"); return request; })
+                )
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     @WithMockUser
     void updateComment_whenIdDoesNotExist_shouldReturnError() throws Exception {
@@ -210,5 +358,9 @@ class CityCommentControllerTest {
         mockMvc.perform(MockMvcRequestBuilders.delete("/api/comment/{id}", "1")
                         .with(csrf()))
                 .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/comment/{id}", "1")
+                        .with(csrf()))
+                .andExpect(status().isNotFound());
     }
 }
\ No newline at end of file
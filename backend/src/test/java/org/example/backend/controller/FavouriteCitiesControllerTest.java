@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -51,6 +52,46 @@ class FavouriteCitiesControllerTest {
                 ));
     }
 
+    @Test
+    @WithMockUser
+    void getFavoriteCities_withMatchingETag_shouldReturnNotModified() throws Exception {
+        appUserRepository.save(AppUser.builder().username("youmna").favoriteCities(List.of("Berlin")).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/favorites")
+                        .param("username", "youmna"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"0\""));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/favorites")
+                        .param("username", "youmna")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser
+    void getFavoriteCities_shouldKeepETag_whenOnlySearchHistoryChanges() throws Exception {
+        appUserRepository.save(AppUser.builder().username("youmna").favoriteCities(new ArrayList<>()).build());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/searchHistory/{userId}", "youmna")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("Paris"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/favorites")
+                        .param("username", "youmna")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+        appUserRepository.addFavoriteCity("youmna", "Berlin");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/favorites")
+                        .param("username", "youmna")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, "\"1\""));
+    }
+
     @Test
     @WithMockUser
     void addFavoriteCity() throws Exception {
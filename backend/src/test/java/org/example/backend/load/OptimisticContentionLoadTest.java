@@ -0,0 +1,123 @@
+package org.example.backend.load;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.backend.BackendApplication;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CityCommentDTO;
+import org.example.backend.repository.CityCommentRepository;
+import org.example.backend.service.CityCommentService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("load")
+class OptimisticContentionLoadTest {
+
+    private static final int WRITERS = 32;
+    private static final int UPDATES_PER_WRITER = 50;
+    private static final int[] HOT_COMMENTS = {1, 4, 32};
+
+    @Test
+    void measureRetriesUnderContention() throws Exception {
+        List<Result> results = new ArrayList<>();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .properties("server.port=0")
+                .run()) {
+            CityCommentService service = context.getBean(CityCommentService.class);
+            CityCommentRepository repository = context.getBean(CityCommentRepository.class);
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            for (int hot : HOT_COMMENTS) {
+                seed(repository, hot);
+                double retriesBefore = count(registry, "optimistic.lock.retries");
+                Result result = run(service, hot);
+                double retries = count(registry, "optimistic.lock.retries") - retriesBefore;
+                results.add(result.withRetries(retries));
+
+                long versions = repository.findAll().stream().mapToLong(CityComment::getVersion).sum();
+                assertThat(versions).isEqualTo(result.succeeded());
+            }
+        }
+
+        System.out.printf("%n%-12s %10s %12s %10s %10s %10s%n", "hot docs", "updates", "retries/op", "p50 ms", "p99 ms", "failed");
+        results.forEach(result -> System.out.printf("%-12d %10d %12.3f %10.1f %10.1f %10d%n",
+                result.hot(), result.succeeded(), result.retries() / (result.succeeded() + result.failed()),
+                result.p50(), result.p99(), result.failed()));
+    }
+
+    private static void seed(CityCommentRepository repository, int hot) {
+        repository.deleteAll();
+        List<CityComment> comments = new ArrayList<>();
+        for (int i = 0; i < hot; i++) {
+            comments.add(CityComment.builder()
+                    .id("hot-" + i)
+                    .cityName("Berlin")
+                    .username("author")
+                    .comment("Kommentar " + i)
+                    .createdAt(LocalDateTime.now())
+                    .likesCount(0)
+                    .replyCount(0)
+                    .build());
+        }
+        repository.saveAll(comments);
+    }
+
+    private static Result run(CityCommentService service, int hot) throws Exception {
+        int total = WRITERS * UPDATES_PER_WRITER;
+        long[] latencies = new long[total];
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newFixedThreadPool(WRITERS)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int writer = w;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                        int index = writer * UPDATES_PER_WRITER + i;
+                        CityCommentDTO dto = CityCommentDTO.builder().comment("Update " + index).build();
+                        long begin = System.nanoTime();
+                        try {
+                            service.updateComment("hot-" + (index % hot), dto, null, null);
+                        } catch (OptimisticLockingFailureException e) {
+                            failed.incrementAndGet();
+                        }
+                        latencies[index] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Arrays.sort(latencies);
+        return new Result(hot, total - failed.get(), failed.get(), 0,
+                latencies[total / 2] / 1e6, latencies[(int) (total * 0.99)] / 1e6);
+    }
+
+    private static double count(MeterRegistry registry, String name) {
+        return registry.find(name).counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    private record Result(int hot, int succeeded, int failed, double retries, double p50, double p99) {
+        Result withRetries(double retries) {
+            return new Result(hot, succeeded, failed, retries, p50, p99);
+        }
+    }
+}
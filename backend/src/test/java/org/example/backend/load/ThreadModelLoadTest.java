@@ -0,0 +1,186 @@
+package org.example.backend.load;
+
+import org.example.backend.BackendApplication;
+import org.example.backend.cloudinary.ImageStorage;
+import org.example.backend.cloudinary.StubImageStorage;
+import org.example.backend.model.CityComment;
+import org.example.backend.repository.CityCommentRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.web.SecurityFilterChain;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Tag("load")
+class ThreadModelLoadTest {
+
+    private static final int REQUESTS = 2_000;
+    private static final int CONCURRENCY = 200;
+    private static final int SEEDED_COMMENTS = 200;
+    private static final String BOUNDARY = "load-test-boundary";
+    private static final byte[] PHOTO = photo();
+
+    @Test
+    void compareThreadModels() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                seed(context.getBean(CityCommentRepository.class));
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                String mode = virtualThreads ? "virtual" : "platform";
+                results.add(run(mode, "GET /api/comment/{cityName}", i -> getComments(port)));
+                results.add(run(mode, "POST /api/addcomment", i -> addComment(port, i)));
+            }
+        }
+
+        System.out.printf("%n%-9s %-30s %10s %10s %10s %8s%n", "threads", "endpoint", "req/s", "p50 ms", "p99 ms", "errors");
+        results.forEach(result -> System.out.printf("%-9s %-30s %10.1f %10.1f %10.1f %8d%n",
+                result.mode(), result.endpoint(), result.throughput(), result.p50(), result.p99(), result.errors()));
+        assertThat(results).allSatisfy(result -> assertThat(result.errors()).isZero());
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(BackendApplication.class, LoadTestConfig.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=20",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "images.upload.threads=32",
+                        "images.upload.queue-capacity=" + REQUESTS)
+                .run();
+    }
+
+    private static void seed(CityCommentRepository repository) {
+        repository.deleteAll();
+        List<CityComment> comments = new ArrayList<>();
+        for (int i = 0; i < SEEDED_COMMENTS; i++) {
+            comments.add(CityComment.builder()
+                    .id("seed-" + i)
+                    .cityName("Berlin")
+                    .username("user" + i)
+                    .comment("Kommentar " + i)
+                    .createdAt(LocalDateTime.now().minusMinutes(i))
+                    .likesCount(0)
+                    .replyCount(0)
+                    .build());
+        }
+        repository.saveAll(comments);
+    }
+
+    private static HttpRequest getComments(int port) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/comment/Berlin")).GET().build();
+    }
+
+    private static HttpRequest addComment(int port, int index) {
+        String head = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"data\"\r\n"
+                + "Content-Type: application/json\r\n\r\n"
+                + "{\"cityName\":\"Berlin\",\"username\":\"load" + index + "\",\"comment\":\"Lasttest " + index + "\"}\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"berlin.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n";
+        String tail = "\r\n--" + BOUNDARY + "--\r\n";
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/addcomment"))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArrays(List.of(
+                        head.getBytes(StandardCharsets.UTF_8), PHOTO, tail.getBytes(StandardCharsets.UTF_8))))
+                .build();
+    }
+
+    private static byte[] photo() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(2400, 1600, BufferedImage.TYPE_INT_RGB), "jpg", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Result run(String mode, String endpoint, IntFunction<HttpRequest> requests) throws Exception {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        long[] latencies = new long[REQUESTS];
+        int errors = 0;
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> futures = new ArrayList<>(REQUESTS);
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        long begin = System.nanoTime();
+                        HttpResponse<Void> response = client.send(requests.apply(index), HttpResponse.BodyHandlers.discarding());
+                        latencies[index] = System.nanoTime() - begin;
+                        return response.statusCode();
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                if (future.get() >= 400) {
+                    errors++;
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        Arrays.sort(latencies);
+        return new Result(mode, endpoint, REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1e6, latencies[(int) (REQUESTS * 0.99)] / 1e6, errors);
+    }
+
+    private record Result(String mode, String endpoint, double throughput, double p50, double p99, int errors) {
+    }
+
+    @TestConfiguration
+    static class LoadTestConfig {
+
+        @Bean
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        SecurityFilterChain loadTestSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http
+                    .securityMatcher("/api/**")
+                    .csrf(csrf -> csrf.disable())
+                    .authorizeHttpRequests(a -> a.anyRequest().permitAll())
+                    .build();
+        }
+
+        @Bean
+        @Primary
+        ImageStorage slowImageStorage() {
+            return new StubImageStorage(Duration.ofMillis(150));
+        }
+    }
+}
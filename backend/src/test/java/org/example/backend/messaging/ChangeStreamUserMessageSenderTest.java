@@ -0,0 +1,107 @@
+package org.example.backend.messaging;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.backend.model.UnreadCountUpdate;
+import org.example.backend.model.UserMessage;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ChangeStreamUserMessageSenderTest {
+
+    private final MongoTemplate sharedMongo = mock(MongoTemplate.class);
+    private final List<Node> cluster = new ArrayList<>();
+
+    private Node node(String... connectedUsers) {
+        SimpUserRegistry registry = mock(SimpUserRegistry.class);
+        for (String user : connectedUsers) {
+            when(registry.getUser(user)).thenReturn(mock(SimpUser.class));
+        }
+        SimpMessagingTemplate template = mock(SimpMessagingTemplate.class);
+        ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+        ChangeStreamUserMessageSender sender = new ChangeStreamUserMessageSender(
+                sharedMongo, template, registry, new ObjectMapper().findAndRegisterModules(),
+                events, Duration.ofMinutes(5));
+        Node node = new Node(sender, template, events);
+        cluster.add(node);
+        return node;
+    }
+
+    private void streamInsertsToCluster() {
+        when(sharedMongo.insert(any(UserMessage.class))).thenAnswer(invocation -> {
+            UserMessage message = invocation.getArgument(0);
+            cluster.forEach(node -> node.sender().deliverLocally(message));
+            return message;
+        });
+    }
+
+    @Test
+    void sendToUser_shouldReachUserConnectedToOtherNode() {
+        Node nodeA = node();
+        Node nodeB = node("anna");
+        streamInsertsToCluster();
+
+        nodeA.sender().sendToUser("anna", "/queue/unread-count", UnreadCountUpdate.builder().count(5).delta(1).build());
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(nodeB.template()).convertAndSendToUser(eq("anna"), eq("/queue/unread-count"), payload.capture());
+        JsonNode frame = (JsonNode) payload.getValue();
+        assertThat(frame.get("count").asLong()).isEqualTo(5);
+        assertThat(frame.get("delta").asLong()).isEqualTo(1);
+        verifyNoInteractions(nodeA.template());
+    }
+
+    @Test
+    void sendToUser_shouldDeliverOnEveryNodeTheUserIsConnectedTo() {
+        Node nodeA = node("anna");
+        Node nodeB = node("anna", "ben");
+        streamInsertsToCluster();
+
+        nodeB.sender().sendToUser("anna", "/queue/notifications", List.of());
+
+        verify(nodeA.template()).convertAndSendToUser(eq("anna"), eq("/queue/notifications"), any(Object.class));
+        verify(nodeB.template()).convertAndSendToUser(eq("anna"), eq("/queue/notifications"), any(Object.class));
+    }
+
+    @Test
+    void sendToUser_shouldDropMessage_whenUserIsOffline() {
+        Node nodeA = node("ben");
+        Node nodeB = node();
+        streamInsertsToCluster();
+
+        nodeA.sender().sendToUser("anna", "/queue/notifications", List.of());
+
+        verify(sharedMongo).insert(any(UserMessage.class));
+        verify(nodeA.template(), never()).convertAndSendToUser(anyString(), anyString(), any(Object.class));
+        verifyNoInteractions(nodeB.template());
+    }
+
+    @Test
+    void sendToUser_shouldPublishMessageOnEveryNode_evenWithoutLocalSession() {
+        Node nodeA = node("anna");
+        Node nodeB = node();
+        streamInsertsToCluster();
+
+        nodeA.sender().sendToUser("anna", "/queue/unread-count", UnreadCountUpdate.builder().count(2).delta(-1).build());
+
+        verify(nodeA.events()).publishEvent(any(UserMessage.class));
+        verify(nodeB.events()).publishEvent(any(UserMessage.class));
+    }
+
+    private record Node(ChangeStreamUserMessageSender sender, SimpMessagingTemplate template, ApplicationEventPublisher events) {
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.backend.messaging;
+
+import org.example.backend.model.AppUser;
+import org.example.backend.repository.AppUserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class UserCacheInvalidatorTest {
+
+    private static CacheManager cachedUsers() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager(AppUserRepository.USERS_CACHE, AppUserRepository.USERS_BY_ID_CACHE);
+        cacheManager.getCache(AppUserRepository.USERS_CACHE).put("anna", AppUser.builder().id("u1").username("anna").build());
+        cacheManager.getCache(AppUserRepository.USERS_CACHE).put("ben", AppUser.builder().id("u2").username("ben").build());
+        cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE).put("u1", AppUser.builder().id("u1").username("anna").build());
+        cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE).put("u2", AppUser.builder().id("u2").username("ben").build());
+        return cacheManager;
+    }
+
+    @Test
+    void evict_shouldDropUserChangedOnAnotherNode() {
+        CacheManager cacheManager = cachedUsers();
+        UserCacheInvalidator invalidator = new UserCacheInvalidator(mock(MongoTemplate.class), cacheManager);
+
+        invalidator.evict("u1", "anna");
+
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("anna")).isNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE).get("u1")).isNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("ben")).isNotNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE).get("u2")).isNotNull();
+    }
+
+    @Test
+    void evict_shouldClearUsernameCache_whenDeletedUserIsUnknown() {
+        CacheManager cacheManager = cachedUsers();
+        UserCacheInvalidator invalidator = new UserCacheInvalidator(mock(MongoTemplate.class), cacheManager);
+
+        invalidator.evict("u1", null);
+
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("anna")).isNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("ben")).isNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE).get("u1")).isNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_BY_ID_CACHE).get("u2")).isNotNull();
+    }
+}
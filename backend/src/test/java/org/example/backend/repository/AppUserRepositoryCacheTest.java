@@ -0,0 +1,81 @@
+package org.example.backend.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.backend.model.AppUser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class AppUserRepositoryCacheTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        appUserRepository.deleteAll();
+    }
+
+    @Test
+    void findByUsername_shouldServeRepeatedLookupsFromCache() {
+        appUserRepository.save(AppUser.builder().username("youmna").favoriteCities(new ArrayList<>(List.of("Berlin"))).build());
+        double hitsBefore = hits();
+
+        AppUser first = appUserRepository.findByUsername("youmna");
+        AppUser second = appUserRepository.findByUsername("youmna");
+
+        assertThat(second).isSameAs(first);
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("youmna")).isNotNull();
+        assertThat(hits() - hitsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void save_shouldEvictCachedUser() {
+        appUserRepository.save(AppUser.builder().username("youmna").favoriteCities(new ArrayList<>(List.of("Berlin"))).build());
+        AppUser cached = appUserRepository.findByUsername("youmna");
+
+        cached.setFavoriteCities(new ArrayList<>(List.of("Berlin", "Paris")));
+        appUserRepository.save(cached);
+
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("youmna")).isNull();
+        assertThat(appUserRepository.findByUsername("youmna").getFavoriteCities()).containsExactly("Berlin", "Paris");
+    }
+
+    @Test
+    void findByUsername_shouldNotCacheUnknownUsers() {
+        assertThat(appUserRepository.findByUsername("unbekannt")).isNull();
+        assertThat(cacheManager.getCache(AppUserRepository.USERS_CACHE).get("unbekannt")).isNull();
+    }
+
+    @Test
+    void save_shouldRejectDuplicateUsernames() {
+        appUserRepository.save(AppUser.builder().username("youmna").build());
+
+        assertThrows(DuplicateKeyException.class,
+                () -> appUserRepository.save(AppUser.builder().username("youmna").build()));
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", AppUserRepository.USERS_CACHE)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
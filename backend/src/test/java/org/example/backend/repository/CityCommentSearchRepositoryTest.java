@@ -0,0 +1,78 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CommentSearchHit;
+import org.example.backend.model.Reply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class CityCommentSearchRepositoryTest {
+
+    @Autowired
+    private CityCommentRepository cityCommentRepository;
+
+    @BeforeEach
+    void setup() {
+        cityCommentRepository.deleteAll();
+        List<CityComment> comments = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            comments.add(comment("c" + i, "Berlin", "Schöner Sonnenuntergang am Fluss " + i));
+        }
+        comments.add(comment("hamburg", "Hamburg", "Sonnenuntergang Sonnenuntergang am Hafen"));
+        CityComment withReply = comment("reply", "Berlin", "Museumsinsel");
+        withReply.setReplies(List.of(Reply.builder().id("r1").text("Toller Sonnenuntergang dort").build()));
+        comments.add(withReply);
+        comments.add(comment("other", "Berlin", "Currywurst"));
+        cityCommentRepository.saveAll(comments);
+    }
+
+    private static CityComment comment(String id, String cityName, String text) {
+        return CityComment.builder()
+                .id(id)
+                .cityName(cityName)
+                .cityKey(CityComment.cityKeyOf(cityName))
+                .username("user1")
+                .comment(text)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    void searchText_shouldMatchCommentsAndReplyPreviewsSortedByScore() {
+        List<CommentSearchHit> hits = cityCommentRepository.searchText("sonnenuntergang", null, null, null, 20);
+
+        assertThat(hits).extracting(hit -> hit.getComment().getId())
+                .hasSize(7)
+                .doesNotContain("other")
+                .contains("reply");
+        assertThat(hits.getFirst().getComment().getId()).isEqualTo("hamburg");
+        assertThat(hits).extracting(CommentSearchHit::getScore).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+    }
+
+    @Test
+    void searchText_shouldPageWithScoreAndIdKeyset() {
+        List<String> seen = new ArrayList<>();
+        Double beforeScore = null;
+        String beforeId = null;
+        List<CommentSearchHit> page;
+        do {
+            page = cityCommentRepository.searchText("sonnenuntergang", "berlin", beforeScore, beforeId, 2);
+            page.forEach(hit -> seen.add(hit.getComment().getId()));
+            if (!page.isEmpty()) {
+                beforeScore = page.getLast().getScore();
+                beforeId = page.getLast().getComment().getId();
+            }
+        } while (page.size() == 2);
+
+        assertThat(seen).hasSize(6).doesNotHaveDuplicates().doesNotContain("hamburg", "other");
+    }
+}
@@ -0,0 +1,108 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.Notification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class NotificationMutationRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @BeforeEach
+    void setup() {
+        notificationRepository.deleteAll();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            notifications.add(Notification.builder()
+                    .id("n" + i)
+                    .username("user1")
+                    .type("LIKE")
+                    .createdAt(BASE.plusMinutes(i))
+                    .build());
+        }
+        notifications.add(Notification.builder().id("n2b").username("user1").createdAt(BASE.plusMinutes(2)).build());
+        notifications.add(Notification.builder().id("other").username("user2").createdAt(BASE).build());
+        notificationRepository.insert(notifications);
+    }
+
+    @Test
+    void insertIgnoringDuplicates_shouldSkipAlreadyStoredIds() {
+        int inserted = notificationRepository.insertIgnoringDuplicates(List.of(
+                Notification.builder().id("n0").username("user1").createdAt(BASE).build(),
+                Notification.builder().id("n9").username("user1").createdAt(BASE.plusMinutes(9)).build()));
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(notificationRepository.countByUsernameAndReadFalse("user1")).isEqualTo(7);
+    }
+
+    @Test
+    void markAllRead_shouldUpdateOnlyUnreadNotificationsOfUser() {
+        assertThat(notificationRepository.markRead("n0", BASE)).isNotNull();
+        assertThat(notificationRepository.markRead("n0", BASE)).isNull();
+
+        assertThat(notificationRepository.markAllRead("user1", BASE)).isEqualTo(5);
+        assertThat(notificationRepository.countByUsernameAndReadFalse("user1")).isZero();
+        assertThat(notificationRepository.countByUsernameAndReadFalse("user2")).isEqualTo(1);
+    }
+
+    @Test
+    void markReadUpTo_shouldIncludeCursorPositionAndOlder() {
+        long updated = notificationRepository.markReadUpTo("user1", BASE.plusMinutes(2), "n2", BASE);
+
+        assertThat(updated).isEqualTo(3);
+        assertThat(notificationRepository.findById("n2").orElseThrow().isRead()).isTrue();
+        assertThat(notificationRepository.findById("n2b").orElseThrow().isRead()).isFalse();
+        assertThat(notificationRepository.findById("n3").orElseThrow().isRead()).isFalse();
+        assertThat(notificationRepository.findById("n0").orElseThrow().getReadAt()).isEqualTo(BASE);
+    }
+
+    @Test
+    void markReadBetween_shouldOnlyFlipDisplayedScreens() {
+        List<Notification> firstScreen = notificationRepository.findByUsernameOrderByCreatedAtDescIdDesc("user1", PageRequest.ofSize(2));
+        Notification head = firstScreen.getFirst();
+        Notification tail = firstScreen.getLast();
+        List<Notification> secondScreen = notificationRepository.findByUsernameBefore(
+                "user1", tail.getCreatedAt(), tail.getId(), PageRequest.ofSize(2));
+        Notification oldestShown = secondScreen.getLast();
+        assertThat(firstScreen).extracting(Notification::getId).containsExactly("n4", "n3");
+        assertThat(secondScreen).extracting(Notification::getId).containsExactly("n2b", "n2");
+
+        long updated = notificationRepository.markReadBetween("user1", head.getCreatedAt(), head.getId(),
+                oldestShown.getCreatedAt(), oldestShown.getId(), BASE);
+
+        assertThat(updated).isEqualTo(4);
+        assertThat(notificationRepository.findAllById(List.of("n4", "n3", "n2b", "n2")))
+                .allSatisfy(n -> assertThat(n.isRead()).isTrue());
+        assertThat(notificationRepository.findAllById(List.of("n1", "n0", "other")))
+                .allSatisfy(n -> assertThat(n.isRead()).isFalse());
+    }
+
+    @Test
+    void markReadUpTo_newestShownPosition_shouldLeaveNewerArrivalsUnread() {
+        Notification newestShown = notificationRepository.findByUsernameOrderByCreatedAtDescIdDesc("user1", PageRequest.ofSize(2)).getFirst();
+        notificationRepository.insert(Notification.builder().id("n5").username("user1").createdAt(BASE.plusMinutes(5)).build());
+
+        assertThat(notificationRepository.markReadUpTo("user1", newestShown.getCreatedAt(), newestShown.getId(), BASE)).isEqualTo(6);
+        assertThat(notificationRepository.findById("n5").orElseThrow().isRead()).isFalse();
+    }
+
+    @Test
+    void markReadUpTo_shouldIncludeEverythingAtTimestamp() {
+        assertThat(notificationRepository.markReadUpTo("user1", BASE.plusMinutes(2), null, BASE)).isEqualTo(4);
+        assertThat(notificationRepository.countByUsernameAndReadFalse("user1")).isEqualTo(2);
+    }
+}
@@ -0,0 +1,103 @@
+package org.example.backend.repository;
+
+import org.example.backend.model.AppUser;
+import org.example.backend.model.FavoriteGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserMutationRepositoryTest {
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @BeforeEach
+    void setup() {
+        appUserRepository.deleteAll();
+        appUserRepository.save(AppUser.builder().id("u1").username("youmna").build());
+    }
+
+    @Test
+    void addFavoriteCity_shouldNotLoseConcurrentUpdates() throws Exception {
+        List<String> cities = IntStream.range(0, 50).mapToObj(i -> "City" + i).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (String city : cities) {
+            futures.add(executor.submit(() -> appUserRepository.addFavoriteCity("youmna", city)));
+            futures.add(executor.submit(() -> appUserRepository.addFavoriteCity("youmna", city)));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertThat(appUserRepository.findByUsername("youmna").getFavoriteCities())
+                .containsExactlyInAnyOrderElementsOf(cities);
+    }
+
+    @Test
+    void addFavoriteCity_shouldReturnNull_whenCityAlreadyFavorite() {
+        assertThat(appUserRepository.addFavoriteCity("youmna", "Berlin")).isNotNull();
+        assertThat(appUserRepository.addFavoriteCity("youmna", "Berlin")).isNull();
+        assertThat(appUserRepository.removeFavoriteCity("youmna", "Berlin").getFavoriteCities()).isEmpty();
+        assertThat(appUserRepository.removeFavoriteCity("youmna", "Berlin")).isNull();
+    }
+
+    @Test
+    void pushSearchEntry_shouldMoveExistingCityToFrontAndKeepTenEntries() {
+        IntStream.range(0, 12).forEach(i -> appUserRepository.pushSearchEntry("youmna", "City" + i, 10));
+
+        AppUser user = appUserRepository.pushSearchEntry("youmna", "City5", 10);
+
+        assertThat(user.getSearchHistory())
+                .hasSize(10)
+                .startsWith("City5", "City11", "City10", "City9", "City8", "City7", "City6", "City4")
+                .doesNotHaveDuplicates();
+    }
+
+    @Test
+    void pushSearchEntry_shouldStoreCityNamesLiterally() {
+        AppUser user = appUserRepository.pushSearchEntry("youmna", "$searchHistory", 10);
+
+        assertThat(user.getSearchHistory()).containsExactly("$searchHistory");
+    }
+
+    @Test
+    void groups_shouldBeUpdatedInPlace() {
+        appUserRepository.pushGroup("youmna", FavoriteGroup.builder().name("Urlaub").cities(new ArrayList<>()).build());
+        appUserRepository.pushGroup("youmna", FavoriteGroup.builder().name("Arbeit").cities(new ArrayList<>()).build());
+        assertThat(appUserRepository.pushGroup("youmna", FavoriteGroup.builder().name("Urlaub").build())).isNull();
+
+        appUserRepository.addCityToGroup("youmna", "Urlaub", "Rom");
+        AppUser user = appUserRepository.addCityToGroup("youmna", "Urlaub", "Rom");
+
+        assertThat(user.getFavoriteGroups()).extracting(FavoriteGroup::getName).containsExactly("Urlaub", "Arbeit");
+        assertThat(user.getFavoriteGroups().getFirst().getCities()).containsExactly("Rom");
+        assertThat(user.getFavoriteGroups().getLast().getCities()).isEmpty();
+        assertThat(appUserRepository.addCityToGroup("youmna", "Unbekannt", "Rom")).isNull();
+
+        assertThat(appUserRepository.pullGroup("youmna", "Urlaub").getFavoriteGroups())
+                .extracting(FavoriteGroup::getName).containsExactly("Arbeit");
+    }
+
+    @Test
+    void mutations_shouldEvictCachedUser() {
+        appUserRepository.findByUsername("youmna");
+
+        appUserRepository.addFavoriteCity("youmna", "Berlin");
+
+        assertThat(appUserRepository.findByUsername("youmna").getFavoriteCities()).containsExactly("Berlin");
+    }
+}
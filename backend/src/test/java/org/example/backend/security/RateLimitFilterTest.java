@@ -0,0 +1,62 @@
+package org.example.backend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+@SpringBootTest(properties = {
+        "rate-limit.enabled=true",
+        "rate-limit.routes[0].pattern=/api/search/cities",
+        "rate-limit.routes[0].method=GET",
+        "rate-limit.routes[0].limit=2",
+        "rate-limit.routes[0].period=1h"
+})
+@AutoConfigureMockMvc
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(username = "flooder")
+    void exceedingRouteLimit_returns429WithRetryAfter() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/search/cities").param("prefix", "Ber"))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/search/cities").param("prefix", "Ber"))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1800"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(429));
+    }
+
+    @Test
+    void anonymousClients_areLimitedByAddress() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/api/search/cities").param("prefix", "Ham")
+                            .with(from("203.0.113.7")))
+                    .andExpect(MockMvcResultMatchers.status().isOk());
+        }
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/search/cities").param("prefix", "Ham")
+                        .with(from("203.0.113.7")))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/search/cities").param("prefix", "Ham")
+                        .with(from("203.0.113.8")))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+    }
+
+    private static RequestPostProcessor from(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private RateLimiter limiter(boolean enabled) {
+        return new RateLimiter(new RateLimitProperties(enabled, 100, Duration.ofMinutes(1), Duration.ofMinutes(10), 1000,
+                List.of(new RateLimitProperties.Route("/api/comment/{commentId}/like", "POST", 3, Duration.ofSeconds(3)))),
+                meterRegistry, now::get);
+    }
+
+    @Test
+    void acquire_allowsBurstUpToLimitThenReturnsWait() {
+        RateLimiter limiter = limiter(true);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.acquire("POST", "/api/comment/c1/like", "user:anna")).isZero();
+        }
+        assertThat(limiter.acquire("POST", "/api/comment/c1/like", "user:anna")).isEqualTo(Duration.ofSeconds(1));
+        assertThat(meterRegistry.get("http.rate_limit.rejected").tag("route", "POST /api/comment/{commentId}/like")
+                .counter().count()).isEqualTo(1);
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(limiter.acquire("POST", "/api/comment/c2/like", "user:anna")).isZero();
+        assertThat(limiter.acquire("POST", "/api/comment/c2/like", "user:anna")).isPositive();
+    }
+
+    @Test
+    void acquire_keepsSeparateBucketsPerIdentityAndRoute() {
+        RateLimiter limiter = limiter(true);
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("POST", "/api/comment/c1/like", "user:anna");
+        }
+
+        assertThat(limiter.acquire("POST", "/api/comment/c1/like", "user:anna")).isPositive();
+        assertThat(limiter.acquire("POST", "/api/comment/c1/like", "ip:10.0.0.1")).isZero();
+        assertThat(limiter.acquire("GET", "/api/comment/Berlin", "user:anna")).isZero();
+    }
+
+    @Test
+    void acquire_ignoresPathsOutsideApiAndDisabledLimiter() {
+        RateLimiter limiter = limiter(true);
+        RateLimiter disabled = limiter(false);
+
+        for (int i = 0; i < 200; i++) {
+            assertThat(limiter.acquire("GET", "/assets/index.js", "ip:10.0.0.1")).isZero();
+            assertThat(disabled.acquire("POST", "/api/comment/c1/like", "user:anna")).isZero();
+        }
+    }
+
+    @Test
+    void acquire_neverAdmitsMoreThanLimitUnderContention() throws Exception {
+        RateLimiter limiter = limiter(true);
+        AtomicInteger admitted = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(() -> {
+                    if (limiter.acquire("POST", "/api/comment/c1/like", "user:anna").isZero()) {
+                        admitted.incrementAndGet();
+                    }
+                });
+            }
+        }
+
+        assertThat(admitted).hasValue(3);
+    }
+}
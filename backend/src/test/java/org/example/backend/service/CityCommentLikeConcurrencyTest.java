@@ -0,0 +1,109 @@
+package org.example.backend.service;
+
+import org.example.backend.model.CityComment;
+import org.example.backend.repository.CityCommentRepository;
+import org.example.backend.repository.CommentLikeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class CityCommentLikeConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int USERS = 64;
+
+    @Autowired
+    private CityCommentService cityCommentService;
+
+    @Autowired
+    private CityCommentRepository cityCommentRepository;
+
+    @Autowired
+    private CommentLikeRepository commentLikeRepository;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setup() {
+        cityCommentRepository.deleteAll();
+        commentLikeRepository.deleteAll();
+        cityCommentRepository.save(CityComment.builder()
+                .id("c1")
+                .cityName("Berlin")
+                .username("author")
+                .comment("Test")
+                .build());
+    }
+
+    @Test
+    void toggleLike_shouldKeepExactCounts_whenManyUsersLikeAndUnlikeConcurrently() throws Exception {
+        runConcurrently(USERS, i -> cityCommentService.toggleLike("c1", "user" + i));
+
+        CityComment afterLikes = cityCommentRepository.findById("c1").orElseThrow();
+        assertThat(afterLikes.getLikesCount()).isEqualTo(USERS);
+        assertThat(commentLikeRepository.countByCommentId("c1")).isEqualTo(USERS);
+        verify(notificationService, times(USERS))
+                .createNotification(eq("author"), anyString(), eq("LIKE"), eq("Berlin"), eq("c1"), any());
+
+        runConcurrently(USERS, i -> cityCommentService.toggleLike("c1", "user" + i));
+
+        CityComment afterUnlikes = cityCommentRepository.findById("c1").orElseThrow();
+        assertThat(afterUnlikes.getLikesCount()).isZero();
+        assertThat(commentLikeRepository.countByCommentId("c1")).isZero();
+        verify(notificationService, times(USERS))
+                .createNotification(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void toggleLike_shouldStayConsistent_whenOneUserTogglesConcurrently() throws Exception {
+        int toggles = 101;
+        runConcurrently(toggles, i -> cityCommentService.toggleLike("c1", "user1"));
+
+        CityComment comment = cityCommentRepository.findById("c1").orElseThrow();
+        assertThat(comment.getLikesCount()).isEqualTo(1);
+        assertThat(commentLikeRepository.findByUsernameAndCommentIdIn("user1", List.of("c1"))).hasSize(1);
+        verify(notificationService, times(51))
+                .createNotification(eq("author"), eq("user1"), eq("LIKE"), eq("Berlin"), eq("c1"), any());
+    }
+
+    private void runConcurrently(int tasks, IndexedTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.run(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+
+    private interface IndexedTask {
+        void run(int index);
+    }
+}
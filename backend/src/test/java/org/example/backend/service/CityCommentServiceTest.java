@@ -1,26 +1,46 @@
 package org.example.backend.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.Uploader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.backend.exception.PreconditionFailedException;
 import org.example.backend.model.CityComment;
 import org.example.backend.model.CityCommentDTO;
+import org.example.backend.model.CommentLike;
+import org.example.backend.model.CursorPage;
+import org.example.backend.model.ImageStatus;
+import org.example.backend.model.LikeResult;
 import org.example.backend.model.Reply;
 import org.example.backend.model.ReplyDTO;
 import org.example.backend.repository.CityCommentRepository;
+import org.example.backend.repository.CommentLikeRepository;
+import org.example.backend.repository.ReplyRepository;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class CityCommentServiceTest {
 
+    private static final OptimisticRetry RETRY = new OptimisticRetry(new SimpleMeterRegistry(), 3, Duration.ZERO);
+
     @Test
     void allComments_shouldReturnList_whenCommentsExist() {
         List<CityComment> commentList = new ArrayList<>(List.of(
@@ -28,32 +48,32 @@ class CityCommentServiceTest {
         ));
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
-        when(mockRepo.findByCityNameIgnoreCase("Berlin")).thenReturn(commentList);
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockCloudinary );
-        List<CityComment> newList = cityCommentService.allComments("Berlin");
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
+        when(mockRepo.findByCityKeyOrderByCreatedAtDescIdDesc("berlin", PageRequest.ofSize(100))).thenReturn(commentList);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+        List<CityComment> newList = cityCommentService.allComments("Berlin", null);
         assertThat(newList.getFirst().getComment()).isEqualTo("Test");
-        verify(mockRepo).findByCityNameIgnoreCase("Berlin");
+        verify(mockRepo).findByCityKeyOrderByCreatedAtDescIdDesc("berlin", PageRequest.ofSize(100));
     }
     @Test
     void allComments_whenNoComments_shouldThrowException() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        when(mockRepo.findByCityNameIgnoreCase("Berlin")).thenReturn(Collections.emptyList());
-        CityCommentService cityCommentService = new CityCommentService(mockRepo,mockNotificationService ,mockCloudinary);
-        assertThrows(NoSuchElementException.class, () -> cityCommentService.allComments("Berlin"));
-        verify(mockRepo).findByCityNameIgnoreCase("Berlin");
+        when(mockRepo.findByCityKeyOrderByCreatedAtDescIdDesc("berlin", PageRequest.ofSize(100))).thenReturn(Collections.emptyList());
+        CityCommentService cityCommentService = new CityCommentService(mockRepo,mockNotificationService ,mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+        assertThrows(NoSuchElementException.class, () -> cityCommentService.allComments("Berlin", null));
+        verify(mockRepo).findByCityKeyOrderByCreatedAtDescIdDesc("berlin", PageRequest.ofSize(100));
     }
     @Test
     public void testGetCommentById() {
 
         Optional<CityComment> cityComment = Optional.of(CityComment.builder().id("1").comment("Test").cityName("Berlin").build());
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
         when(mockRepo.findById("1")).thenReturn(cityComment);
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockCloudinary);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
         Optional<CityComment> newComment = cityCommentService.getCommentById("1");
         assertThat(newComment).isPresent();
         assertThat(newComment.get().getId()).isEqualTo("1");
@@ -64,43 +84,59 @@ class CityCommentServiceTest {
     void addComment() {
         CityComment cityComment = CityComment.builder().comment("Testing").build();
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
         when(mockRepo.save(any(CityComment.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockCloudinary);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
         CityComment newComment = cityCommentService.addComment(cityComment);
         assertThat(newComment.getComment()).isEqualTo("Testing");
         verify(mockRepo).save(any(CityComment.class));
     }
 
     @Test
-    void addCommentWithImage_shouldUploadImageAndAddComment_whenFileIsProvided() throws IOException {
-        CityComment comment = CityComment.builder().build();
-        comment.setComment("Test Comment");
+    void addCommentWithImage_shouldSavePendingCommentAndStartUpload_whenFileIsProvided() throws IOException {
+        CityComment comment = CityComment.builder().cityName("Berlin").comment("Test Comment").build();
 
         MultipartFile file = mock(MultipartFile.class);
         when(file.isEmpty()).thenReturn(false);
-        when(file.getBytes()).thenReturn("dummy image data".getBytes());
-
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
-        Map uploadResult = new HashMap<>();
-        uploadResult.put("secure_url", "https://cloudinary.com/fake-image.jpg");
 
-        Uploader mockUploader = mock(Uploader.class);
-        when(mockCloudinary.uploader()).thenReturn(mockUploader);
-        when(mockUploader.upload(any(byte[].class), anyMap())).thenReturn(uploadResult);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
+        ImageUploadService.PendingUpload upload = new ImageUploadService.PendingUpload(Path.of("spooled.upload"), "abc123");
+        when(mockUploads.prepare(file)).thenReturn(upload);
 
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        when(mockRepo.save(any(CityComment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         NotificationService mockNotificationService = mock(NotificationService.class);
 
-        CityCommentService cityCommentService = spy(new CityCommentService(mockRepo, mockNotificationService, mockCloudinary));
-        doReturn(comment).when(cityCommentService).addComment(comment);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
 
         CityComment result = cityCommentService.addCommentWithImage(comment, file);
 
-        assertThat(result.getImageUrl()).isEqualTo("https://cloudinary.com/fake-image.jpg");
-        verify(mockCloudinary.uploader()).upload(any(byte[].class), anyMap());
-        verify(cityCommentService).addComment(comment);
+        assertThat(result.getImageStatus()).isEqualTo(ImageStatus.PENDING);
+        assertThat(result.getImageUrl()).isNull();
+        verify(mockUploads).start(upload, result);
+        verify(file, never()).getBytes();
+    }
+
+    @Test
+    void addCommentWithImage_shouldReleaseUpload_whenSavingFails() throws IOException {
+        CityComment comment = CityComment.builder().cityName("Berlin").comment("Test Comment").build();
+
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.isEmpty()).thenReturn(false);
+
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
+        ImageUploadService.PendingUpload upload = new ImageUploadService.PendingUpload(Path.of("spooled.upload"), "abc123");
+        when(mockUploads.prepare(file)).thenReturn(upload);
+
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        when(mockRepo.save(any(CityComment.class))).thenThrow(new IllegalStateException("down"));
+
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mock(NotificationService.class), mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+
+        assertThrows(IllegalStateException.class, () -> cityCommentService.addCommentWithImage(comment, file));
+        verify(mockUploads).cancel(upload);
+        verify(mockUploads, never()).start(any(), any());
     }
 
     @Test
@@ -108,30 +144,60 @@ class CityCommentServiceTest {
         CityComment cityComment = CityComment.builder().id("1").comment("Testing").build();
         CityCommentDTO cityCommentDTO = CityCommentDTO.builder().comment("Test").build();
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
         when(mockRepo.findById("1")).thenReturn(Optional.of(cityComment));
         when(mockRepo.save(any(CityComment.class))).thenAnswer(invocation -> invocation.getArgument(0));
         MultipartFile file = null;
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockCloudinary);
-        CityComment newComment = cityCommentService.updateComment("1", cityCommentDTO, file);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+        CityComment newComment = cityCommentService.updateComment("1", cityCommentDTO, file, null);
         assertThat(newComment.getComment()).isEqualTo("Test");
         verify(mockRepo).findById("1");
         verify(mockRepo).save(newComment);
     }
 
+    @Test
+    void updateComment_shouldReloadAndRetry_whenVersionConflicts() throws IOException {
+        CityCommentDTO cityCommentDTO = CityCommentDTO.builder().comment("Test").build();
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        when(mockRepo.findById("1")).thenAnswer(invocation ->
+                Optional.of(CityComment.builder().id("1").comment("Testing").version(2L).build()));
+        when(mockRepo.save(any(CityComment.class)))
+                .thenThrow(new OptimisticLockingFailureException("Versionskonflikt"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mock(NotificationService.class), null, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+
+        CityComment updated = cityCommentService.updateComment("1", cityCommentDTO, null, null);
+
+        assertThat(updated.getComment()).isEqualTo("Test");
+        verify(mockRepo, times(2)).findById("1");
+        verify(mockRepo, times(2)).save(any(CityComment.class));
+    }
+
+    @Test
+    void updateComment_shouldRejectStaleIfMatch() {
+        CityCommentDTO cityCommentDTO = CityCommentDTO.builder().comment("Test").build();
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        when(mockRepo.findById("1")).thenReturn(Optional.of(CityComment.builder().id("1").comment("Testing").version(2L).build()));
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mock(NotificationService.class), null, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+
+        assertThatThrownBy(() -> cityCommentService.updateComment("1", cityCommentDTO, null, 1L))
+                .isInstanceOf(PreconditionFailedException.class);
+        verify(mockRepo, never()).save(any());
+    }
+
     @Test
     void updateComment_whenCommentNotFound_shouldThrowException()  {
         CityCommentDTO cityCommentDTO = CityCommentDTO.builder().comment("Test").build();
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
 
         when(mockRepo.findById("10")).thenReturn(Optional.empty());
         MultipartFile file = null;
 
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, mockCloudinary);
-        assertThatThrownBy(() -> cityCommentService.updateComment("10", cityCommentDTO, file))
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, mockUploads, mock(CityStatsService.class), mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
+        assertThatThrownBy(() -> cityCommentService.updateComment("10", cityCommentDTO, file, null))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Kommentar nicht gefunden: 10");
 
@@ -143,145 +209,190 @@ class CityCommentServiceTest {
     void deleteCommentById() {
         String id = "1";
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        doNothing().when(mockRepo).deleteById(id);
-        when(mockRepo.existsById(id)).thenReturn(true);
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockCloudinary);
+        CityStatsService mockStats = mock(CityStatsService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
+        CityComment removed = CityComment.builder().id(id).cityName("Berlin").imageUrl("berlin.jpg").likesCount(4).replyCount(2).build();
+        when(mockRepo.removeComment(id)).thenReturn(removed);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockUploads, mockStats, mockReplyRepo, mockLikeRepo, RETRY);
         cityCommentService.deleteCommentById(id);
-        verify(mockRepo).deleteById(id);
+        verify(mockRepo).removeComment(id);
+        verify(mockRepo, never()).findById(any());
+        verify(mockReplyRepo).deleteByCommentId(id);
+        verify(mockLikeRepo).deleteByCommentId(id);
+        verify(mockUploads).discard(removed);
+        verify(mockStats).commentDeleted("Berlin", "berlin.jpg", 4, 2);
     }
 
     @Test
     void deleteCommentById_whenCommentNotFound_shouldThrowException() {
         String id = "999";
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        ImageUploadService mockUploads = mock(ImageUploadService.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        when(mockRepo.existsById(id)).thenReturn(false);
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockCloudinary);
+        CityStatsService mockStats = mock(CityStatsService.class);
+        when(mockRepo.removeComment(id)).thenReturn(null);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService,mockUploads, mockStats, mock(ReplyRepository.class), mock(CommentLikeRepository.class), RETRY);
         assertThrows(NoSuchElementException.class, () -> cityCommentService.deleteCommentById(id));
-        verify(mockRepo).existsById(id);
-        verify(mockRepo, never()).deleteById(any());
+        verify(mockRepo).removeComment(id);
+        verifyNoInteractions(mockUploads, mockStats);
     }
     @Test
     void toggleLike_shouldThrowException_whenCommentNotFound() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        when(mockRepo.findById("1")).thenReturn(Optional.empty());
-        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, mockCloudinary);
+        when(mockLikeRepo.deleteByCommentIdAndUsername("1", "user1")).thenReturn(0L);
+        when(mockRepo.incrementLikes("1", 1)).thenReturn(null);
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, null,
+                mock(CityStatsService.class), mock(ReplyRepository.class), mockLikeRepo, RETRY);
         assertThatThrownBy(() -> cityCommentService.toggleLike("1", "user1"))
-                .isInstanceOf(RuntimeException.class)
+                .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Kommentar nicht gefunden");
+        verify(mockLikeRepo).insert(any(CommentLike.class));
+        verify(mockLikeRepo, times(2)).deleteByCommentIdAndUsername("1", "user1");
+        verify(mockNotificationService, never()).createNotification(any(), any(), any(), any(), any(), any());
     }
 
     @Test
     void toggleLike_shouldRemoveLike_whenUserAlreadyLiked() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        CityComment comment = CityComment.builder()
+        when(mockLikeRepo.deleteByCommentIdAndUsername("1", "user1")).thenReturn(1L);
+        when(mockRepo.incrementLikes("1", -1)).thenReturn(CityComment.builder()
                 .id("1")
                 .username("author")
-                .likesCount(1)
-                .likedByUsers(new ArrayList<>(List.of("user1")))
-                .build();
-
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        CityCommentService cityCommentService =  new CityCommentService(mockRepo, mockNotificationService, mockCloudinary);
-        CityComment result = cityCommentService.toggleLike("1", "user1");
+                .likesCount(0)
+                .build());
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, null,
+                mock(CityStatsService.class), mock(ReplyRepository.class), mockLikeRepo, RETRY);
+        LikeResult result = cityCommentService.toggleLike("1", "user1");
 
-        assertThat(result.getLikedByUsers()).doesNotContain("user1");
+        assertThat(result.isLiked()).isFalse();
         assertThat(result.getLikesCount()).isEqualTo(0);
+        verify(mockLikeRepo, never()).insert(any(CommentLike.class));
         verify(mockNotificationService, never()).createNotification(any(), any(), any(), any(), any(), any());
-        verify(mockRepo).save(comment);
     }
 
     @Test
     void toggleLike_shouldAddLikeAndNotify_whenUserDidNotLikeAndIsNotAuthor() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        CityComment comment = CityComment.builder()
+        when(mockLikeRepo.deleteByCommentIdAndUsername("1", "user1")).thenReturn(0L);
+        when(mockRepo.incrementLikes("1", 1)).thenReturn(CityComment.builder()
                 .id("1")
                 .username("author")
-                .likesCount(0)
-                .likedByUsers(new ArrayList<>())
+                .likesCount(1)
                 .cityName("Berlin")
-                .build();
-
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        CityCommentService cityCommentService =  new CityCommentService(mockRepo, mockNotificationService, mockCloudinary);
-        CityComment result = cityCommentService.toggleLike("1", "user1");
+                .build());
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, null,
+                mock(CityStatsService.class), mock(ReplyRepository.class), mockLikeRepo, RETRY);
+        LikeResult result = cityCommentService.toggleLike("1", "user1");
 
-        assertThat(result.getLikedByUsers()).contains("user1");
+        assertThat(result.isLiked()).isTrue();
         assertThat(result.getLikesCount()).isEqualTo(1);
+        verify(mockLikeRepo).insert(any(CommentLike.class));
         verify(mockNotificationService).createNotification("author", "user1", "LIKE", "Berlin", "1", null);
-        verify(mockRepo).save(comment);
     }
 
     @Test
     void toggleLike_shouldAddLikeWithoutNotification_whenUserIsAuthor() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        Cloudinary mockCloudinary = mock(Cloudinary.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
         NotificationService  mockNotificationService = mock(NotificationService.class);
-        CityComment comment = CityComment.builder()
+        when(mockRepo.incrementLikes("1", 1)).thenReturn(CityComment.builder()
                 .id("1")
                 .username("user1")
-                .likesCount(0)
-                .likedByUsers(new ArrayList<>())
+                .likesCount(1)
                 .cityName("Berlin")
-                .build();
+                .build());
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, null,
+                mock(CityStatsService.class), mock(ReplyRepository.class), mockLikeRepo, RETRY);
+        LikeResult result = cityCommentService.toggleLike("1", "user1");
 
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        CityCommentService cityCommentService =  new CityCommentService(mockRepo, mockNotificationService, mockCloudinary);
-        CityComment result = cityCommentService.toggleLike("1", "user1");
-
-        assertThat(result.getLikedByUsers()).contains("user1");
+        assertThat(result.isLiked()).isTrue();
         assertThat(result.getLikesCount()).isEqualTo(1);
         verify(mockNotificationService, never()).createNotification(any(), any(), any(), any(), any(), any());
-        verify(mockRepo).save(comment);
+    }
+
+    @Test
+    void toggleLike_shouldUnlike_whenConcurrentLikeOfSameUserWon() {
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
+        NotificationService  mockNotificationService = mock(NotificationService.class);
+        when(mockLikeRepo.deleteByCommentIdAndUsername("1", "user1")).thenReturn(0L).thenReturn(1L);
+        when(mockLikeRepo.insert(any(CommentLike.class))).thenThrow(new DuplicateKeyException("E11000"));
+        when(mockRepo.incrementLikes("1", -1)).thenReturn(CityComment.builder().id("1").likesCount(0).build());
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mockNotificationService, null,
+                mock(CityStatsService.class), mock(ReplyRepository.class), mockLikeRepo, RETRY);
+
+        LikeResult result = cityCommentService.toggleLike("1", "user1");
+
+        assertThat(result.isLiked()).isFalse();
+        verify(mockRepo, never()).incrementLikes("1", 1);
+    }
+
+    @Test
+    void allComments_shouldResolveLikedByMeInOneQuery() {
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        CommentLikeRepository mockLikeRepo = mock(CommentLikeRepository.class);
+        List<CityComment> comments = List.of(
+                CityComment.builder().id("1").cityName("Berlin").build(),
+                CityComment.builder().id("2").cityName("Berlin").build());
+        when(mockRepo.findByCityKeyOrderByCreatedAtDescIdDesc("berlin", PageRequest.ofSize(100))).thenReturn(comments);
+        when(mockLikeRepo.findByUsernameAndCommentIdIn("user1", List.of("1", "2")))
+                .thenReturn(List.of(CommentLike.builder().commentId("2").username("user1").build()));
+        CityCommentService cityCommentService = new CityCommentService(mockRepo, mock(NotificationService.class), null,
+                mock(CityStatsService.class), mock(ReplyRepository.class), mockLikeRepo, RETRY);
+
+        List<CityComment> result = cityCommentService.allComments("Berlin", "user1");
+
+        assertThat(result).extracting(CityComment::getLikedByMe).containsExactly(false, true);
+        verify(mockLikeRepo, times(1)).findByUsernameAndCommentIdIn(any(), any());
     }
 
     @Test
     void addReply_shouldThrowException_whenCommentNotFound() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
 
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
+        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null, mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
 
         ReplyDTO replyDTO = ReplyDTO.builder()
                 .username("user1")
                 .text("Test reply")
                 .build();
 
-        when(mockRepo.findById("1")).thenReturn(Optional.empty());
+        when(mockRepo.pushReply(eq("1"), any(Reply.class), anyInt())).thenReturn(null);
 
         assertThatThrownBy(() -> service.addReply("1", replyDTO))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Kommentar mit ID 1 nicht gefunden.");
+        ArgumentCaptor<Reply> saved = ArgumentCaptor.forClass(Reply.class);
+        verify(mockReplyRepo).save(saved.capture());
+        verify(mockReplyRepo).deleteById(saved.getValue().getId());
     }
 
     @Test
     void addReply_shouldAddReplyAndNotify_whenReplierIsNotAuthor() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
 
-        CityComment comment = CityComment.builder()
+        when(mockRepo.pushReply(eq("1"), any(Reply.class), eq(3))).thenAnswer(invocation -> CityComment.builder()
                 .id("1")
                 .username("author")
-                .replies(new ArrayList<>())
                 .cityName("Berlin")
-                .build();
-
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+                .replyCount(1)
+                .replies(List.of(invocation.getArgument(1, Reply.class)))
+                .build());
 
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
+        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null, mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
 
         ReplyDTO replyDTO = ReplyDTO.builder()
                 .username("user1")
@@ -290,9 +401,12 @@ class CityCommentServiceTest {
 
         CityComment result = service.addReply("1", replyDTO);
 
+        assertThat(result.getReplyCount()).isEqualTo(1);
         assertThat(result.getReplies()).hasSize(1);
-        assertThat(result.getReplies().get(0).getText()).isEqualTo("Test reply");
-        assertThat(result.getReplies().get(0).getUsername()).isEqualTo("user1");
+        Reply reply = result.getReplies().get(0);
+        assertThat(reply.getText()).isEqualTo("Test reply");
+        assertThat(reply.getUsername()).isEqualTo("user1");
+        assertThat(reply.getCommentId()).isEqualTo("1");
 
         verify(mockNotificationService).createNotification(
                 "author",
@@ -300,28 +414,29 @@ class CityCommentServiceTest {
                 "REPLY",
                 "Berlin",
                 "1",
-                result.getReplies().get(0).getId()
+                reply.getId()
         );
-
-        verify(mockRepo).save(comment);
+        InOrder order = inOrder(mockReplyRepo, mockRepo);
+        order.verify(mockReplyRepo).save(reply);
+        order.verify(mockRepo).pushReply("1", reply, 3);
+        verify(mockRepo, never()).save(any());
     }
 
     @Test
     void addReply_shouldAddReplyWithoutNotification_whenReplierIsAuthor() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
 
-        CityComment comment = CityComment.builder()
+        when(mockRepo.pushReply(eq("1"), any(Reply.class), eq(3))).thenAnswer(invocation -> CityComment.builder()
                 .id("1")
                 .username("user1")
-                .replies(new ArrayList<>())
                 .cityName("Berlin")
-                .build();
-
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+                .replyCount(1)
+                .replies(List.of(invocation.getArgument(1, Reply.class)))
+                .build());
 
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
+        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null, mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
 
         ReplyDTO replyDTO = ReplyDTO.builder()
                 .username("user1")
@@ -332,99 +447,87 @@ class CityCommentServiceTest {
 
         assertThat(result.getReplies()).hasSize(1);
         assertThat(result.getReplies().get(0).getText()).isEqualTo("Author reply");
-        assertThat(result.getReplies().get(0).getUsername()).isEqualTo("user1");
-
         verify(mockNotificationService, never()).createNotification(any(), any(), any(), any(), any(), any());
+        verify(mockReplyRepo).save(any(Reply.class));
+    }
 
-        verify(mockRepo).save(comment);
+    @Test
+    void replyPage_shouldReturnNextCursor_whenMoreRepliesExist() {
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Reply> replies = List.of(
+                Reply.builder().id("r3").commentId("1").createdAt(now).build(),
+                Reply.builder().id("r2").commentId("1").createdAt(now.minusMinutes(1)).build(),
+                Reply.builder().id("r1").commentId("1").createdAt(now.minusMinutes(2)).build());
+        when(mockReplyRepo.findByCommentIdOrderByCreatedAtDescIdDesc(eq("1"), any(Pageable.class))).thenReturn(replies);
+
+        CityCommentService service = new CityCommentService(mock(CityCommentRepository.class), mock(NotificationService.class), null,
+                mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
+
+        CursorPage<Reply> page = service.replyPage("1", null, 2);
+
+        assertThat(page.getItems()).extracting(Reply::getId).containsExactly("r3", "r2");
+        assertThat(CursorCodec.decode(page.getNextCursor()))
+                .isEqualTo(new CursorCodec.Position(now.minusMinutes(1), "r2"));
     }
 
     @Test
     void deleteReply_shouldThrowException_whenCommentNotFound() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
 
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
+        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null, mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
 
-        when(mockRepo.findById("1")).thenReturn(Optional.empty());
+        when(mockRepo.existsById("1")).thenReturn(false);
 
         assertThatThrownBy(() -> service.deleteReply("1", "reply1", "user1"))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Kommentar nicht gefunden");
+        verify(mockReplyRepo, never()).deleteByIdAndCommentIdAndUsername(any(), any(), any());
     }
 
     @Test
-    void deleteReply_shouldDeleteReply_whenUserIsOwner() {
+    void deleteReply_shouldDeleteReplyAndRefreshPreview_whenUserIsOwner() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
 
-        Reply reply = Reply.builder()
-                .id("reply1")
-                .username("user1")
-                .text("Test reply")
-                .build();
+        Reply older = Reply.builder().id("reply0").username("user2").build();
+        Reply newer = Reply.builder().id("reply2").username("user3").build();
 
-        CityComment comment = CityComment.builder()
+        when(mockRepo.existsById("1")).thenReturn(true);
+        when(mockReplyRepo.deleteByIdAndCommentIdAndUsername("reply1", "1", "user1")).thenReturn(1L);
+        when(mockReplyRepo.findByCommentIdOrderByCreatedAtDescIdDesc(eq("1"), any(Pageable.class)))
+                .thenReturn(List.of(newer, older));
+        when(mockRepo.replaceReplyPreview(eq("1"), anyList(), eq(-1))).thenAnswer(invocation -> CityComment.builder()
                 .id("1")
-                .replies(new ArrayList<>(List.of(reply)))
-                .build();
+                .replies(invocation.getArgument(1))
+                .build());
 
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
+        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null, mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
 
         CityComment result = service.deleteReply("1", "reply1", "user1");
 
-        assertThat(result.getReplies()).isEmpty();
-        verify(mockRepo).save(comment);
-    }
-
-    @Test
-    void deleteReply_shouldThrowException_whenUserIsNotOwner() {
-        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
-        NotificationService mockNotificationService = mock(NotificationService.class);
-
-        Reply reply = Reply.builder()
-                .id("reply1")
-                .username("ownerUser")
-                .text("Test reply")
-                .build();
-
-        CityComment comment = CityComment.builder()
-                .id("1")
-                .replies(new ArrayList<>(List.of(reply)))
-                .build();
-
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
-
-        assertThatThrownBy(() -> service.deleteReply("1", "reply1", "user1"))
-                .isInstanceOf(NoSuchElementException.class)
-                .hasMessageContaining("Antwort wurde nicht gefunden oder du hast keine Berechtigung sie zu löschen.");
-
+        assertThat(result.getReplies()).containsExactly(older, newer);
         verify(mockRepo, never()).save(any());
     }
 
     @Test
-    void deleteReply_shouldThrowException_whenReplyDoesNotExist() {
+    void deleteReply_shouldThrowException_whenUserIsNotOwnerOrReplyDoesNotExist() {
         CityCommentRepository mockRepo = mock(CityCommentRepository.class);
         NotificationService mockNotificationService = mock(NotificationService.class);
+        ReplyRepository mockReplyRepo = mock(ReplyRepository.class);
 
-        CityComment comment = CityComment.builder()
-                .id("1")
-                .replies(new ArrayList<>())
-                .build();
+        when(mockRepo.existsById("1")).thenReturn(true);
+        when(mockReplyRepo.deleteByIdAndCommentIdAndUsername("reply1", "1", "user1")).thenReturn(0L);
 
-        when(mockRepo.findById("1")).thenReturn(Optional.of(comment));
-
-        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null);
+        CityCommentService service = new CityCommentService(mockRepo, mockNotificationService, null, mock(CityStatsService.class), mockReplyRepo, mock(CommentLikeRepository.class), RETRY);
 
         assertThatThrownBy(() -> service.deleteReply("1", "reply1", "user1"))
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Antwort wurde nicht gefunden oder du hast keine Berechtigung sie zu löschen.");
 
-        verify(mockRepo, never()).save(any());
+        verify(mockRepo, never()).replaceReplyPreview(any(), any(), anyInt());
     }
 }
\ No newline at end of file
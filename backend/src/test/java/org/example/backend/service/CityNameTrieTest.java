@@ -0,0 +1,78 @@
+package org.example.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CityNameTrieTest {
+
+    @Test
+    void complete_shouldReturnMatchesByWeight() {
+        CityNameTrie trie = new CityNameTrie();
+        trie.put("Berlin", 10);
+        trie.put("Bern", 20);
+        trie.put("Bremen", 5);
+        trie.put("Hamburg", 50);
+
+        assertThat(trie.complete("ber", 10)).containsExactly("Bern", "Berlin");
+        assertThat(trie.complete("b", 2)).containsExactly("Bern", "Berlin");
+        assertThat(trie.complete("x", 10)).isEmpty();
+        assertThat(trie.complete("", 10)).isEmpty();
+    }
+
+    @Test
+    void complete_shouldIgnoreCaseAndDiacritics() {
+        CityNameTrie trie = new CityNameTrie();
+        trie.put("München", 1);
+        trie.put("Gießen", 1);
+
+        assertThat(trie.complete("MUN", 10)).containsExactly("München");
+        assertThat(trie.complete("münch", 10)).containsExactly("München");
+        assertThat(trie.complete("giess", 10)).containsExactly("Gießen");
+    }
+
+    @Test
+    void remove_shouldDropCityButKeepLongerNames() {
+        CityNameTrie trie = new CityNameTrie();
+        trie.put("Bern", 1);
+        trie.put("Bernau", 1);
+
+        trie.remove("Bern");
+
+        assertThat(trie.complete("ber", 10)).containsExactly("Bernau");
+        trie.remove("Bernau");
+        assertThat(trie.complete("b", 10)).isEmpty();
+    }
+
+    @Test
+    void put_shouldKeepVariantsThatOnlyDifferInCaseOrAccents() {
+        CityNameTrie trie = new CityNameTrie();
+        trie.put("München", 5);
+        trie.put("Munchen", 3);
+        trie.put("münchen", 1);
+
+        assertThat(trie.complete("mun", 10)).containsExactly("München", "Munchen", "münchen");
+
+        trie.remove("Munchen");
+
+        assertThat(trie.complete("mun", 10)).containsExactly("München", "münchen");
+    }
+
+    @Test
+    void complete_shouldKeepTopKAccurate_whenWeightsChangeOrEntriesAreRemoved() {
+        CityNameTrie trie = new CityNameTrie(2);
+        trie.put("Berlin", 10);
+        trie.put("Bern", 20);
+        trie.put("Bremen", 5);
+        trie.put("Bonn", 1);
+
+        assertThat(trie.complete("b", 2)).containsExactly("Bern", "Berlin");
+
+        trie.put("Bern", 0);
+        assertThat(trie.complete("b", 2)).containsExactly("Berlin", "Bremen");
+
+        trie.remove("Berlin");
+        assertThat(trie.complete("b", 2)).containsExactly("Bremen", "Bonn");
+        assertThat(trie.complete("b", 10)).containsExactly("Bremen", "Bonn", "Bern");
+    }
+}
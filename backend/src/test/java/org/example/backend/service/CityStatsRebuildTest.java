@@ -0,0 +1,190 @@
+package org.example.backend.service;
+
+import org.example.backend.model.AppUser;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CityStats;
+import org.example.backend.repository.AppUserRepository;
+import org.example.backend.repository.CityCommentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class CityStatsRebuildTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.now();
+
+    @Autowired
+    private CityStatsService cityStatsService;
+
+    @Autowired
+    private CityCommentRepository cityCommentRepository;
+
+    @Autowired
+    private AppUserRepository appUserRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setup() {
+        cityCommentRepository.deleteAll();
+        appUserRepository.deleteAll();
+        appUserRepository.saveAll(List.of(
+                AppUser.builder().id("u1").username("anna").favoriteCities(List.of("Berlin", "Paris")).build(),
+                AppUser.builder().id("u2").username("ben").favoriteCities(List.of("Berlin")).build()));
+
+        List<CityComment> comments = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            comments.add(CityComment.builder()
+                    .id("c" + i)
+                    .cityName("Berlin")
+                    .cityKey("berlin")
+                    .username("anna")
+                    .comment("Kommentar " + i)
+                    .imageUrl(i == 3 ? null : "berlin" + i + ".jpg")
+                    .createdAt(BASE.plusMinutes(i))
+                    .likesCount(i)
+                    .replyCount(1)
+                    .build());
+        }
+        cityCommentRepository.saveAll(comments);
+    }
+
+    @Test
+    void recompute_shouldMaterializeSummariesFromSourceCollections() {
+        cityStatsService.recompute();
+
+        CityStats berlin = cityStatsService.summary("Berlin");
+        assertThat(berlin.getFavoritesCount()).isEqualTo(2);
+        assertThat(berlin.getCommentsCount()).isEqualTo(7);
+        assertThat(berlin.getLikesCount()).isEqualTo(21);
+        assertThat(berlin.getRepliesCount()).isEqualTo(7);
+        assertThat(berlin.getFirstCommentPhoto()).isEqualTo("berlin0.jpg");
+        assertThat(berlin.getLatestPhotos())
+                .containsExactly("berlin6.jpg", "berlin5.jpg", "berlin4.jpg", "berlin2.jpg", "berlin1.jpg");
+
+        CityStats paris = cityStatsService.summary("Paris");
+        assertThat(paris.getFavoritesCount()).isEqualTo(1);
+        assertThat(paris.getCommentsCount()).isZero();
+
+        assertThat(cityStatsService.getMostPopularCities(10))
+                .extracting(city -> city.get("cityName"))
+                .containsExactly("Berlin", "Paris");
+        assertThat(cityStatsService.suggestCities("be", 10)).containsExactly("Berlin");
+    }
+
+    @Test
+    void recompute_shouldMergeCityNamesThatOnlyDifferInCase() {
+        cityCommentRepository.save(CityComment.builder()
+                .id("lower")
+                .cityName("berlin")
+                .cityKey("berlin")
+                .username("ben")
+                .comment("Kleingeschrieben")
+                .createdAt(BASE.plusHours(1))
+                .likesCount(0)
+                .replyCount(0)
+                .build());
+        appUserRepository.save(AppUser.builder().id("u3").username("cem").favoriteCities(List.of("BERLIN ")).build());
+
+        cityStatsService.recompute();
+        cityStatsService.favoriteAdded("berlin");
+
+        CityStats berlin = cityStatsService.summary("BERLIN");
+        assertThat(berlin.getCityKey()).isEqualTo("berlin");
+        assertThat(berlin.getCommentsCount()).isEqualTo(8);
+        assertThat(berlin.getFavoritesCount()).isEqualTo(4);
+        assertThat(berlin.getCityName()).isEqualTo("Berlin");
+        assertThat(cityStatsService.getMostPopularCities(10))
+                .extracting(city -> city.get("cityName"))
+                .containsExactly("Berlin", "Paris");
+    }
+
+    @Test
+    void recompute_shouldDropCitiesWithoutSourceData() {
+        cityStatsService.recompute();
+        cityCommentRepository.deleteAll();
+        appUserRepository.deleteAll();
+
+        cityStatsService.recompute();
+
+        assertThatThrownBy(() -> cityStatsService.summary("Berlin")).isInstanceOf(NoSuchElementException.class);
+        assertThat(cityStatsService.getMostPopularCities(10)).isEmpty();
+    }
+
+    @Test
+    void recompute_shouldDropItsRebuildCollection() {
+        cityStatsService.recompute();
+
+        assertThat(mongoTemplate.getCollectionNames()).noneMatch(name -> name.startsWith("city_stats_rebuild"));
+    }
+
+    @Test
+    void recompute_shouldSkipWhileAnotherInstanceHoldsTheLock() {
+        mongoTemplate.dropCollection(CityStats.class);
+        ClusterLock otherInstance = new ClusterLock(mongoTemplate);
+        assertThat(otherInstance.tryAcquire("city-stats-rebuild", Duration.ofMinutes(5))).isTrue();
+        try {
+            cityStatsService.recompute();
+
+            assertThatThrownBy(() -> cityStatsService.summary("Berlin")).isInstanceOf(NoSuchElementException.class);
+        } finally {
+            otherInstance.release("city-stats-rebuild");
+        }
+
+        cityStatsService.recompute();
+        assertThat(cityStatsService.summary("Berlin").getCommentsCount()).isEqualTo(7);
+    }
+
+    @Test
+    void incrementalUpdates_shouldKeepSummaryCurrent() {
+        cityStatsService.recompute();
+
+        cityStatsService.likeAdded("Berlin");
+        cityStatsService.replyAdded("Berlin");
+        cityCommentRepository.save(CityComment.builder()
+                .id("new")
+                .cityName("Berlin")
+                .cityKey("berlin")
+                .imageUrl("berlin-new.jpg")
+                .createdAt(BASE.plusHours(1))
+                .build());
+        cityStatsService.commentAdded("Berlin", "berlin-new.jpg");
+        cityCommentRepository.deleteById("c6");
+        cityStatsService.commentDeleted("Berlin", "berlin6.jpg", 6, 1);
+
+        CityStats berlin = cityStatsService.summary("Berlin");
+        assertThat(berlin.getLikesCount()).isEqualTo(16);
+        assertThat(berlin.getRepliesCount()).isEqualTo(7);
+        assertThat(berlin.getCommentsCount()).isEqualTo(7);
+        assertThat(berlin.getLatestPhotos())
+                .containsExactly("berlin-new.jpg", "berlin5.jpg", "berlin4.jpg", "berlin2.jpg", "berlin1.jpg");
+    }
+
+    @Test
+    void photoReplaced_shouldSwapTheOldUrlOutOfTheSummary() {
+        cityStatsService.recompute();
+
+        cityStatsService.photoReplaced("Berlin", "berlin0.jpg", "berlin0-neu.jpg");
+        cityStatsService.photoReplaced("Berlin", "berlin5.jpg", "berlin5-neu.jpg");
+
+        CityStats berlin = cityStatsService.summary("Berlin");
+        assertThat(berlin.getFirstCommentPhoto()).isEqualTo("berlin0-neu.jpg");
+        assertThat(berlin.getLatestPhotos())
+                .containsExactly("berlin5-neu.jpg", "berlin0-neu.jpg", "berlin6.jpg", "berlin4.jpg", "berlin2.jpg");
+        assertThat(cityStatsService.getMostPopularCities(1).getFirst().get("firstCommentPhoto"))
+                .isEqualTo("berlin0-neu.jpg");
+    }
+}
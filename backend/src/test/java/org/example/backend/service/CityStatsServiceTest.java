@@ -0,0 +1,208 @@
+package org.example.backend.service;
+
+import org.bson.Document;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.CityStats;
+import org.example.backend.repository.CityStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CityStatsServiceTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(30);
+
+    private static CityStats stats(String cityName, long favorites, long comments, String photo) {
+        return CityStats.builder()
+                .cityKey(CityComment.cityKeyOf(cityName))
+                .cityName(cityName)
+                .favoritesCount(favorites)
+                .commentsCount(comments)
+                .firstCommentPhoto(photo)
+                .build();
+    }
+
+    private static CityStats stats(String cityName, long favorites, long comments, String photo, long seq) {
+        CityStats stats = stats(cityName, favorites, comments, photo);
+        stats.setSeq(seq);
+        return stats;
+    }
+
+    @Test
+    void getMostPopularCities_shouldServeRankingLoadedAtStartup() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        MongoTemplate mockTemplate = mock(MongoTemplate.class);
+        when(mockRepo.count()).thenReturn(3L);
+        when(mockRepo.findAll()).thenReturn(List.of(
+                stats("Paris", 1, 1, "paris.jpg"),
+                stats("Berlin", 2, 2, "image1.jpg"),
+                stats("Hamburg", 0, 3, null)));
+
+        CityStatsService service = new CityStatsService(mockRepo, mockTemplate, mock(ClusterLock.class), LEASE);
+        service.rebuild();
+        List<Map<String, Object>> result = service.getMostPopularCities(10);
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).get("cityName")).isEqualTo("Berlin");
+        assertThat(result.get(0).get("favoritesCount")).isEqualTo(2L);
+        assertThat(result.get(0).get("commentsCount")).isEqualTo(2L);
+        assertThat(result.get(0).get("firstCommentPhoto")).isEqualTo("image1.jpg");
+        assertThat(result.get(1).get("cityName")).isEqualTo("Paris");
+        verify(mockRepo, never()).saveAll(any());
+        verifyNoInteractions(mockTemplate);
+    }
+
+    @Test
+    void getMostPopularCities_shouldRespectLimit() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        when(mockRepo.count()).thenReturn(3L);
+        when(mockRepo.findAll()).thenReturn(List.of(
+                stats("Paris", 1, 0, null),
+                stats("Berlin", 2, 0, null),
+                stats("Rom", 3, 0, null)));
+
+        CityStatsService service = new CityStatsService(mockRepo, mock(MongoTemplate.class), mock(ClusterLock.class), LEASE);
+        service.rebuild();
+
+        assertThat(service.getMostPopularCities(2))
+                .extracting(city -> city.get("cityName"))
+                .containsExactly("Rom", "Berlin");
+    }
+
+    @Test
+    void favoriteAdded_shouldReorderRanking() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        MongoTemplate mockTemplate = mock(MongoTemplate.class);
+        when(mockRepo.count()).thenReturn(2L);
+        when(mockRepo.findAll()).thenReturn(List.of(
+                stats("Berlin", 2, 0, null),
+                stats("Paris", 2, 0, null)));
+        when(mockTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CityStats.class)))
+                .thenReturn(stats("Paris", 3, 0, null, 1));
+
+        CityStatsService service = new CityStatsService(mockRepo, mockTemplate, mock(ClusterLock.class), LEASE);
+        service.rebuild();
+        service.favoriteAdded("Paris");
+
+        List<Map<String, Object>> result = service.getMostPopularCities(10);
+        assertThat(result).extracting(city -> city.get("cityName")).containsExactly("Paris", "Berlin");
+        assertThat(result.get(0).get("favoritesCount")).isEqualTo(3L);
+    }
+
+    @Test
+    void refresh_shouldIgnoreSnapshotsOlderThanTheCachedOne() {
+        CityStatsService service = new CityStatsService(mock(CityStatsRepository.class), mock(MongoTemplate.class), mock(ClusterLock.class), LEASE);
+
+        service.refresh(stats("Berlin", 2, 0, null, 5));
+        service.refresh(stats("Paris", 3, 0, null, 1));
+        service.refresh(stats("Berlin", 4, 0, null, 7));
+        service.refresh(stats("Berlin", 3, 0, null, 6));
+
+        List<Map<String, Object>> result = service.getMostPopularCities(10);
+        assertThat(result).extracting(city -> city.get("cityName")).containsExactly("Berlin", "Paris");
+        assertThat(result.get(0).get("favoritesCount")).isEqualTo(4L);
+    }
+
+    @Test
+    void reload_shouldNotOverwriteRefreshesThatRaceTheSnapshot() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        CityStatsService service = new CityStatsService(mockRepo, mock(MongoTemplate.class), mock(ClusterLock.class), LEASE);
+        when(mockRepo.count()).thenReturn(3L);
+        when(mockRepo.findAll())
+                .thenReturn(List.of(stats("Berlin", 2, 0, null, 1), stats("Rom", 5, 0, null, 1)))
+                .thenAnswer(invocation -> {
+                    service.refresh(stats("Paris", 4, 0, null, 3));
+                    service.refresh(stats("Hamburg", 1, 0, null, 1));
+                    return List.of(stats("Berlin", 2, 0, null, 1), stats("Paris", 1, 0, null, 2));
+                });
+
+        service.rebuild();
+        service.rebuild();
+
+        List<Map<String, Object>> result = service.getMostPopularCities(10);
+        assertThat(result).extracting(city -> city.get("cityName")).containsExactly("Paris", "Berlin", "Hamburg");
+        assertThat(result.get(0).get("favoritesCount")).isEqualTo(4L);
+    }
+
+    @Test
+    void favoriteRemoved_shouldDropCityWithoutFavorites() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        MongoTemplate mockTemplate = mock(MongoTemplate.class);
+        when(mockRepo.count()).thenReturn(1L);
+        when(mockRepo.findAll()).thenReturn(List.of(stats("Berlin", 1, 4, null)));
+        when(mockTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CityStats.class)))
+                .thenReturn(stats("Berlin", 0, 4, null, 1));
+
+        CityStatsService service = new CityStatsService(mockRepo, mockTemplate, mock(ClusterLock.class), LEASE);
+        service.rebuild();
+        service.favoriteRemoved("Berlin");
+
+        assertThat(service.getMostPopularCities(10)).isEmpty();
+    }
+
+    @Test
+    void commentAdded_shouldSetFirstPhoto_whenCityHasNoPhotoYet() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        MongoTemplate mockTemplate = mock(MongoTemplate.class);
+        when(mockTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CityStats.class)))
+                .thenReturn(stats("Berlin", 1, 1, null, 1))
+                .thenReturn(stats("Berlin", 1, 1, "berlin.jpg", 2));
+
+        CityStatsService service = new CityStatsService(mockRepo, mockTemplate, mock(ClusterLock.class), LEASE);
+        service.commentAdded("Berlin", "berlin.jpg");
+
+        assertThat(service.getMostPopularCities(1).getFirst().get("firstCommentPhoto")).isEqualTo("berlin.jpg");
+        verify(mockTemplate, times(2)).findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CityStats.class));
+    }
+
+    @Test
+    void commentAdded_shouldPushPhotoIntoLatestPhotosWithSameUpdate() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        MongoTemplate mockTemplate = mock(MongoTemplate.class);
+        when(mockTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CityStats.class)))
+                .thenReturn(stats("Berlin", 0, 1, "berlin.jpg"));
+
+        CityStatsService service = new CityStatsService(mockRepo, mockTemplate, mock(ClusterLock.class), LEASE);
+        service.commentAdded("Berlin", "berlin.jpg");
+
+        ArgumentCaptor<UpdateDefinition> update = ArgumentCaptor.forClass(UpdateDefinition.class);
+        verify(mockTemplate).findAndModify(any(Query.class), update.capture(),
+                any(FindAndModifyOptions.class), eq(CityStats.class));
+        Document push = update.getValue().getUpdateObject().get("$push", Document.class);
+        assertThat(update.getValue().getUpdateObject().get("$inc", Document.class)).containsEntry("seq", 1);
+        assertThat(push.get("latestPhotos", Document.class))
+                .containsEntry("$position", 0)
+                .containsEntry("$slice", 5);
+    }
+
+    @Test
+    void likeRemoved_shouldOnlyDecrementPositiveCounter() {
+        CityStatsRepository mockRepo = mock(CityStatsRepository.class);
+        MongoTemplate mockTemplate = mock(MongoTemplate.class);
+
+        CityStatsService service = new CityStatsService(mockRepo, mockTemplate, mock(ClusterLock.class), LEASE);
+        service.likeRemoved("Berlin");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mockTemplate).findAndModify(query.capture(), any(UpdateDefinition.class),
+                any(FindAndModifyOptions.class), eq(CityStats.class));
+        assertThat(query.getValue().getQueryObject().get("likesCount", Document.class)).containsEntry("$gt", 0);
+    }
+}
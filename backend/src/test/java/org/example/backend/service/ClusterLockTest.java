@@ -0,0 +1,49 @@
+package org.example.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ClusterLockTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.dropCollection("cluster_locks");
+    }
+
+    @Test
+    void tryAcquire_shouldGrantLeaseToOneInstanceAtATime() {
+        ClusterLock first = new ClusterLock(mongoTemplate);
+        ClusterLock second = new ClusterLock(mongoTemplate);
+
+        assertThat(first.tryAcquire("job", Duration.ofMinutes(5))).isTrue();
+        assertThat(second.tryAcquire("job", Duration.ofMinutes(5))).isFalse();
+        assertThat(first.tryAcquire("job", Duration.ofMinutes(5))).isTrue();
+
+        second.release("job");
+        assertThat(second.tryAcquire("job", Duration.ofMinutes(5))).isFalse();
+
+        first.release("job");
+        assertThat(second.tryAcquire("job", Duration.ofMinutes(5))).isTrue();
+    }
+
+    @Test
+    void tryAcquire_shouldTakeOverExpiredLease() {
+        ClusterLock crashed = new ClusterLock(mongoTemplate);
+        ClusterLock survivor = new ClusterLock(mongoTemplate);
+
+        assertThat(crashed.tryAcquire("job", Duration.ZERO)).isTrue();
+
+        assertThat(survivor.tryAcquire("job", Duration.ofMinutes(5))).isTrue();
+    }
+}
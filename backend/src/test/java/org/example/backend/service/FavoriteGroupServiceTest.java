@@ -63,73 +63,64 @@ class FavoriteGroupServiceTest {
     @Test
     void addGroup_shouldAddNewGroup() {
         AppUserRepository mockRepo = mock(AppUserRepository.class);
-        AppUser user = AppUser.builder()
-                .username("user1")
-                .favoriteGroups(null)
-                .build();
-        when(mockRepo.findByUsername("user1")).thenReturn(user);
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(mockRepo.pushGroup(eq("user1"), any(FavoriteGroup.class)))
+                .thenAnswer(invocation -> AppUser.builder()
+                        .username("user1")
+                        .favoriteGroups(List.of(invocation.getArgument(1, FavoriteGroup.class)))
+                        .build());
 
         FavoriteGroupService service = new FavoriteGroupService(mockRepo);
 
         FavoriteGroup newGroup = service.addGroup("user1", "Group1");
 
         assertThat(newGroup.getName()).isEqualTo("Group1");
-        assertThat(user.getFavoriteGroups()).contains(newGroup);
-        verify(mockRepo).save(user);
+        assertThat(newGroup.getCities()).isEmpty();
+        verify(mockRepo).pushGroup("user1", newGroup);
+        verify(mockRepo, never()).save(any());
     }
 
     @Test
-    void addGroup_shouldThrowException_whenUserNotFound() {
+    void addGroup_shouldThrowException_whenGroupAlreadyExists() {
         AppUserRepository mockRepo = mock(AppUserRepository.class);
-        when(mockRepo.findByUsername("user1")).thenReturn(null);
+        when(mockRepo.pushGroup(eq("user1"), any(FavoriteGroup.class))).thenReturn(null);
+        when(mockRepo.findByUsername("user1")).thenReturn(AppUser.builder().username("user1").build());
 
         FavoriteGroupService service = new FavoriteGroupService(mockRepo);
 
         assertThatThrownBy(() -> service.addGroup("user1", "Group1"))
-                .isInstanceOf(NoSuchElementException.class)
-                .hasMessageContaining("Kein User gefunden für: user1");
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Gruppe existiert bereits: Group1");
     }
 
     @Test
-    void deleteGroup_shouldRemoveGroupIfExists() {
+    void addGroup_shouldThrowException_whenUserNotFound() {
         AppUserRepository mockRepo = mock(AppUserRepository.class);
-        FavoriteGroup group = FavoriteGroup.builder().name("Group1").build();
-        AppUser user = AppUser.builder()
-                .username("user1")
-                .favoriteGroups(new ArrayList<>(List.of(group)))
-                .build();
-        when(mockRepo.findByUsername("user1")).thenReturn(user);
+        when(mockRepo.findByUsername("user1")).thenReturn(null);
 
         FavoriteGroupService service = new FavoriteGroupService(mockRepo);
 
-        service.deleteGroup("user1", "Group1");
-
-        assertThat(user.getFavoriteGroups()).doesNotContain(group);
-        verify(mockRepo).save(user);
+        assertThatThrownBy(() -> service.addGroup("user1", "Group1"))
+                .isInstanceOf(NoSuchElementException.class)
+                .hasMessageContaining("Kein User gefunden für: user1");
     }
 
     @Test
-    void deleteGroup_shouldDoNothingIfGroupNotExists() {
+    void deleteGroup_shouldPullGroup() {
         AppUserRepository mockRepo = mock(AppUserRepository.class);
-        AppUser user = AppUser.builder()
-                .username("user1")
-                .favoriteGroups(new ArrayList<>())
-                .build();
-        when(mockRepo.findByUsername("user1")).thenReturn(user);
+        when(mockRepo.pullGroup("user1", "Group1")).thenReturn(AppUser.builder().username("user1").build());
 
         FavoriteGroupService service = new FavoriteGroupService(mockRepo);
 
         service.deleteGroup("user1", "Group1");
 
-        assertThat(user.getFavoriteGroups()).isEmpty();
-        verify(mockRepo, never()).save(user);
+        verify(mockRepo).pullGroup("user1", "Group1");
+        verify(mockRepo, never()).save(any());
     }
 
     @Test
     void deleteGroup_shouldThrowException_whenUserNotFound() {
         AppUserRepository mockRepo = mock(AppUserRepository.class);
-        when(mockRepo.findByUsername("user1")).thenReturn(null);
+        when(mockRepo.pullGroup("user1", "Group1")).thenReturn(null);
 
         FavoriteGroupService service = new FavoriteGroupService(mockRepo);
 
@@ -139,46 +130,24 @@ class FavoriteGroupServiceTest {
     }
 
     @Test
-    void addCityToGroup_shouldAddCityIfNotExists() {
-        AppUserRepository mockRepo = mock(AppUserRepository.class);
-        FavoriteGroup group = FavoriteGroup.builder()
-                .name("Group1")
-                .cities(new ArrayList<>())
-                .build();
-        AppUser user = AppUser.builder()
-                .username("user1")
-                .favoriteGroups(new ArrayList<>(List.of(group)))
-                .build();
-        when(mockRepo.findByUsername("user1")).thenReturn(user);
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-
-        FavoriteGroupService service = new FavoriteGroupService(mockRepo);
-
-        FavoriteGroup updatedGroup = service.addCityToGroup("user1", "Group1", "Berlin");
-
-        assertThat(updatedGroup.getCities()).contains("Berlin");
-        verify(mockRepo).save(user);
-    }
-
-    @Test
-    void addCityToGroup_shouldNotAddCityIfAlreadyExists() {
+    void addCityToGroup_shouldReturnUpdatedGroup() {
         AppUserRepository mockRepo = mock(AppUserRepository.class);
         FavoriteGroup group = FavoriteGroup.builder()
                 .name("Group1")
-                .cities(new ArrayList<>(List.of("Berlin")))
+                .cities(List.of("Berlin"))
                 .build();
-        AppUser user = AppUser.builder()
+        AppUser updated = AppUser.builder()
                 .username("user1")
-                .favoriteGroups(new ArrayList<>(List.of(group)))
+                .favoriteGroups(List.of(FavoriteGroup.builder().name("Other").build(), group))
                 .build();
-        when(mockRepo.findByUsername("user1")).thenReturn(user);
+        when(mockRepo.addCityToGroup("user1", "Group1", "Berlin")).thenReturn(updated);
 
         FavoriteGroupService service = new FavoriteGroupService(mockRepo);
 
         FavoriteGroup updatedGroup = service.addCityToGroup("user1", "Group1", "Berlin");
 
         assertThat(updatedGroup.getCities()).containsExactly("Berlin");
-        verify(mockRepo, never()).save(user);
+        verify(mockRepo, never()).save(any());
     }
 
     @Test
@@ -208,9 +177,4 @@ class FavoriteGroupServiceTest {
                 .isInstanceOf(NoSuchElementException.class)
                 .hasMessageContaining("Kein User gefunden für: user1");
     }
-
-
-
-
-
-}
\ No newline at end of file
+}
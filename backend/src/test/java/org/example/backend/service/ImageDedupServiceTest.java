@@ -0,0 +1,60 @@
+package org.example.backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.backend.model.ImageAsset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ImageDedupServiceTest {
+
+    @Autowired
+    private ImageDedupService imageDedupService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.dropCollection(ImageAsset.class);
+    }
+
+    @Test
+    void acquire_shouldCountReferences_andReportSavedBytes() {
+        double savedBefore = meterRegistry.get("images.dedup.bytes.saved").counter().count();
+        assertThat(imageDedupService.acquire("hash-1")).isNull();
+
+        imageDedupService.register(ImageAsset.builder()
+                .id("hash-1")
+                .imageUrl("https://stub.local/1.jpg")
+                .thumbnailUrl("https://stub.local/1-thumb.jpg")
+                .bytes(1000)
+                .build());
+        ImageAsset reused = imageDedupService.acquire("hash-1");
+
+        assertThat(reused.getImageUrl()).isEqualTo("https://stub.local/1.jpg");
+        assertThat(mongoTemplate.findById("hash-1", ImageAsset.class).getRefCount()).isEqualTo(2);
+        assertThat(meterRegistry.get("images.dedup.bytes.saved").counter().count() - savedBefore).isEqualTo(1000);
+
+        imageDedupService.release("hash-1");
+        assertThat(mongoTemplate.findById("hash-1", ImageAsset.class).getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void register_shouldReuseExistingAsset_whenSameImageWasUploadedConcurrently() {
+        imageDedupService.register(ImageAsset.builder().id("hash-2").imagePublicId("first").build());
+
+        ImageAsset winner = imageDedupService.register(ImageAsset.builder().id("hash-2").imagePublicId("second").build());
+
+        assertThat(winner.getImagePublicId()).isEqualTo("first");
+        assertThat(winner.getRefCount()).isEqualTo(2);
+    }
+}
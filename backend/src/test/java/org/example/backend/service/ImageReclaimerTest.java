@@ -0,0 +1,95 @@
+package org.example.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.backend.cloudinary.StubImageStorage;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.model.ImageDeletion;
+import org.example.backend.repository.CityCommentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ImageReclaimerTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ImageDedupService imageDedupService;
+
+    @Autowired
+    private CityCommentRepository cityCommentRepository;
+
+    private final StubImageStorage storage = new StubImageStorage();
+
+    @BeforeEach
+    void setup() {
+        mongoTemplate.dropCollection(ImageDeletion.class);
+        mongoTemplate.dropCollection(ImageAsset.class);
+        cityCommentRepository.deleteAll();
+    }
+
+    private ImageReclaimer reclaimer(boolean dryRun) {
+        return new ImageReclaimer(mongoTemplate, storage, imageDedupService, new SimpleMeterRegistry(),
+                100, 500, Duration.ZERO, 3, Duration.ofMinutes(1), dryRun);
+    }
+
+    @Test
+    void reclaim_shouldDeleteUnreferencedImages_andKeepReusedOnes() {
+        cityCommentRepository.save(CityComment.builder().id("c1").cityName("Berlin").comment("Test")
+                .imagePublicId("city-comments/in-use").build());
+        ImageReclaimer reclaimer = reclaimer(false);
+        reclaimer.enqueue("comment-deleted", "city-comments/orphan", "city-comments/in-use");
+
+        reclaimer.reclaim();
+
+        assertThat(storage.getDeleted()).containsExactly("city-comments/orphan");
+        assertThat(mongoTemplate.findAll(ImageDeletion.class)).isEmpty();
+    }
+
+    @Test
+    void release_shouldEnqueueAsset_whenLastReferenceIsGone() {
+        imageDedupService.register(ImageAsset.builder().id("hash").imagePublicId("full").thumbnailPublicId("thumb").build());
+        imageDedupService.acquire("hash");
+        ImageReclaimer reclaimer = reclaimer(false);
+
+        reclaimer.release(CityComment.builder().imageHash("hash").build(), "comment-deleted");
+        assertThat(mongoTemplate.findAll(ImageDeletion.class)).isEmpty();
+
+        reclaimer.release(CityComment.builder().imageHash("hash").build(), "comment-deleted");
+        assertThat(mongoTemplate.findAll(ImageDeletion.class))
+                .extracting(ImageDeletion::getId)
+                .containsExactlyInAnyOrder("full", "thumb");
+    }
+
+    @Test
+    void release_shouldDerivePublicIdFromUrl_forCommentsStoredBeforePublicIds() {
+        reclaimer(false).release(CityComment.builder()
+                .imageUrl("https://res.cloudinary.com/demo/image/upload/v1712345678/city-comments/abc123.jpg")
+                .build(), "comment-deleted");
+
+        assertThat(mongoTemplate.findAll(ImageDeletion.class))
+                .extracting(ImageDeletion::getId)
+                .containsExactly("city-comments/abc123");
+        assertThat(ImageReclaimer.legacyPublicId("https://example.com/berlin.jpg")).isNull();
+    }
+
+    @Test
+    void reclaim_inDryRun_shouldKeepOutboxAndStorageUntouched() {
+        ImageReclaimer reclaimer = reclaimer(true);
+        reclaimer.enqueue("replaced", "city-comments/old");
+
+        reclaimer.reclaim();
+
+        assertThat(storage.getDeleted()).isEmpty();
+        assertThat(mongoTemplate.findAll(ImageDeletion.class)).hasSize(1);
+    }
+}
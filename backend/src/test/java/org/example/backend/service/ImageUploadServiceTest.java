@@ -0,0 +1,232 @@
+package org.example.backend.service;
+
+import org.example.backend.cloudinary.ImageStorage;
+import org.example.backend.cloudinary.StoredImage;
+import org.example.backend.cloudinary.StubImageStorage;
+import org.example.backend.model.CityComment;
+import org.example.backend.model.ImageAsset;
+import org.example.backend.repository.CityCommentRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ImageUploadServiceTest {
+
+    private static final CityComment COMMENT = CityComment.builder().id("c1").cityName("Berlin").build();
+
+    private static final ImageProcessor PROCESSOR = new ImageProcessor(800, 200, 0.8f, 50_000_000);
+
+    private static ImageDedupService noDuplicates() {
+        ImageDedupService dedup = mock(ImageDedupService.class);
+        when(dedup.register(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        return dedup;
+    }
+
+    private static MockMultipartFile image(String content) throws IOException {
+        BufferedImage picture = new BufferedImage(1200, 900, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = picture.createGraphics();
+        g.drawString(content, 10, 10);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(picture, "jpg", out);
+        return new MockMultipartFile("file", "berlin.jpg", "image/jpeg", out.toByteArray());
+    }
+
+    @Test
+    void start_shouldUploadSpooledFileAndMarkCommentReady() throws Exception {
+        StubImageStorage storage = new StubImageStorage();
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        CityStatsService mockStats = mock(CityStatsService.class);
+        when(mockRepo.completeImageUpload(any(), any())).thenReturn(CityComment.builder().id("c1").build());
+        ImageDedupService dedup = noDuplicates();
+        ImageUploadService service = new ImageUploadService(storage, PROCESSOR, dedup, mock(ImageReclaimer.class), mockRepo, mockStats, 1, 1, false);
+
+        MockMultipartFile original = image("pixels");
+        ImageUploadService.PendingUpload upload = service.prepare(original);
+        assertThat(Files.readAllBytes(upload.file())).isEqualTo(original.getBytes());
+        assertThat(upload.sha256()).isEqualTo(HexFormat.of().formatHex(
+                MessageDigest.getInstance("SHA-256").digest(original.getBytes())));
+        service.start(upload, COMMENT);
+
+        ArgumentCaptor<ImageAsset> asset = ArgumentCaptor.forClass(ImageAsset.class);
+        verify(mockRepo, timeout(5000)).completeImageUpload(eq("c1"), asset.capture());
+        assertThat(asset.getValue().getId()).isEqualTo(upload.sha256());
+        assertThat(asset.getValue().getImageUrl()).isEqualTo("https://stub.local/city-comments/1.jpg");
+        assertThat(asset.getValue().getThumbnailUrl()).isEqualTo("https://stub.local/city-comments/2.jpg");
+        verify(dedup).acquire(upload.sha256());
+        verify(mockStats, timeout(5000)).photoAdded("Berlin", "https://stub.local/city-comments/2.jpg");
+        service.shutdown();
+        assertThat(Files.exists(upload.file())).isFalse();
+        verify(mockRepo, never()).failImageUpload(any());
+
+        BufferedImage full = ImageIO.read(new ByteArrayInputStream(storage.getUploads().get(0)));
+        BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(storage.getUploads().get(1)));
+        assertThat(full.getWidth()).isEqualTo(800);
+        assertThat(full.getHeight()).isEqualTo(600);
+        assertThat(thumbnail.getWidth()).isEqualTo(200);
+    }
+
+    @Test
+    void start_shouldMarkCommentFailed_whenStorageFails() throws Exception {
+        ImageStorage failingStorage = new ImageStorage() {
+            @Override
+            public StoredImage upload(Path file) throws IOException {
+                throw new IOException("Cloudinary nicht erreichbar");
+            }
+
+            @Override
+            public Set<String> delete(List<String> publicIds) throws IOException {
+                throw new IOException("Cloudinary nicht erreichbar");
+            }
+        };
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        ImageUploadService service = new ImageUploadService(failingStorage, PROCESSOR, noDuplicates(), mock(ImageReclaimer.class), mockRepo, mock(CityStatsService.class), 1, 1, false);
+
+        ImageUploadService.PendingUpload upload = service.prepare(image("pixels"));
+        service.start(upload, COMMENT);
+
+        verify(mockRepo, timeout(5000)).failImageUpload("c1");
+        service.shutdown();
+        assertThat(Files.exists(upload.file())).isFalse();
+    }
+
+    @Test
+    void start_shouldKeepImageReady_whenFollowUpBookkeepingFails() throws Exception {
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        CityStatsService mockStats = mock(CityStatsService.class);
+        when(mockRepo.completeImageUpload(any(), any())).thenReturn(CityComment.builder().id("c1").build());
+        doThrow(new IllegalStateException("Mongo nicht erreichbar")).when(mockStats).photoAdded(any(), any());
+        ImageUploadService service = new ImageUploadService(new StubImageStorage(), PROCESSOR, noDuplicates(), mock(ImageReclaimer.class), mockRepo, mockStats, 1, 1, false);
+
+        ImageUploadService.PendingUpload upload = service.prepare(image("pixels"));
+        service.start(upload, COMMENT);
+
+        verify(mockStats, timeout(5000)).photoAdded(eq("Berlin"), any());
+        service.shutdown();
+        verify(mockRepo).completeImageUpload(eq("c1"), any());
+        verify(mockRepo, never()).failImageUpload(any());
+        assertThat(Files.exists(upload.file())).isFalse();
+    }
+
+    @Test
+    void start_shouldSwapReplacedPhotoInCityStats() throws Exception {
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        CityStatsService mockStats = mock(CityStatsService.class);
+        ImageReclaimer mockReclaimer = mock(ImageReclaimer.class);
+        CityComment previous = CityComment.builder()
+                .id("c1")
+                .imageUrl("https://stub.local/city-comments/old.jpg")
+                .thumbnailUrl("https://stub.local/city-comments/old-thumb.jpg")
+                .build();
+        when(mockRepo.completeImageUpload(any(), any())).thenReturn(previous);
+        ImageUploadService service = new ImageUploadService(new StubImageStorage(), PROCESSOR, noDuplicates(), mockReclaimer, mockRepo, mockStats, 1, 1, false);
+
+        service.start(service.prepare(image("pixels")), COMMENT);
+
+        verify(mockStats, timeout(5000)).photoReplaced("Berlin",
+                "https://stub.local/city-comments/old-thumb.jpg", "https://stub.local/city-comments/2.jpg");
+        service.shutdown();
+        verify(mockReclaimer).release(previous, "replaced");
+        verify(mockStats, never()).photoAdded(any(), any());
+    }
+
+    @Test
+    void start_shouldReuseKnownImage_withoutUploading() throws Exception {
+        StubImageStorage storage = new StubImageStorage();
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        CityStatsService mockStats = mock(CityStatsService.class);
+        ImageDedupService dedup = mock(ImageDedupService.class);
+        ImageAsset known = ImageAsset.builder()
+                .id("hash")
+                .imageUrl("https://stub.local/city-comments/known.jpg")
+                .thumbnailUrl("https://stub.local/city-comments/known-thumb.jpg")
+                .build();
+        when(dedup.acquire(any())).thenReturn(known);
+        when(mockRepo.completeImageUpload(any(), any())).thenReturn(CityComment.builder().id("c1").build());
+        ImageUploadService service = new ImageUploadService(storage, PROCESSOR, dedup, mock(ImageReclaimer.class), mockRepo, mockStats, 1, 1, false);
+
+        service.start(service.prepare(image("pixels")), COMMENT);
+
+        verify(mockRepo, timeout(5000)).completeImageUpload("c1", known);
+        verify(mockStats, timeout(5000)).photoAdded("Berlin", "https://stub.local/city-comments/known-thumb.jpg");
+        service.shutdown();
+        assertThat(storage.getUploads()).isEmpty();
+        verify(dedup, never()).register(any());
+    }
+
+    @Test
+    void start_shouldMarkCommentFailed_whenFileIsNoImage() throws Exception {
+        StubImageStorage storage = new StubImageStorage();
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        ImageUploadService service = new ImageUploadService(storage, PROCESSOR, noDuplicates(), mock(ImageReclaimer.class), mockRepo, mock(CityStatsService.class), 1, 1, false);
+
+        ImageUploadService.PendingUpload upload = service.prepare(
+                new MockMultipartFile("file", "berlin.jpg", "image/jpeg", "kein Bild".getBytes()));
+        service.start(upload, COMMENT);
+
+        verify(mockRepo, timeout(5000)).failImageUpload("c1");
+        service.shutdown();
+        assertThat(storage.getUploads()).isEmpty();
+    }
+
+    @Test
+    void start_shouldStoreOriginal_whenImageFormatCannotBeDecoded() throws Exception {
+        StubImageStorage storage = new StubImageStorage();
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        when(mockRepo.completeImageUpload(any(), any())).thenReturn(CityComment.builder().id("c1").build());
+        ImageUploadService service = new ImageUploadService(storage, PROCESSOR, noDuplicates(), mock(ImageReclaimer.class), mockRepo, mock(CityStatsService.class), 1, 1, false);
+        byte[] webp = "RIFF\0\0\0\0WEBPVP8 kodierte Pixel".getBytes(StandardCharsets.US_ASCII);
+
+        service.start(service.prepare(new MockMultipartFile("file", "berlin.webp", "image/webp", webp)), COMMENT);
+
+        ArgumentCaptor<ImageAsset> asset = ArgumentCaptor.forClass(ImageAsset.class);
+        verify(mockRepo, timeout(5000)).completeImageUpload(eq("c1"), asset.capture());
+        service.shutdown();
+        assertThat(asset.getValue().getImageUrl()).isEqualTo("https://stub.local/city-comments/1.jpg");
+        assertThat(asset.getValue().getThumbnailUrl()).isEqualTo(asset.getValue().getImageUrl());
+        assertThat(storage.getUploads()).containsExactly(webp);
+        verify(mockRepo, never()).failImageUpload(any());
+    }
+
+    @Test
+    void prepare_shouldRejectUploads_whenCapacityIsExhausted() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StubImageStorage storage = new StubImageStorage(release);
+        CityCommentRepository mockRepo = mock(CityCommentRepository.class);
+        ImageUploadService service = new ImageUploadService(storage, PROCESSOR, noDuplicates(), mock(ImageReclaimer.class), mockRepo, mock(CityStatsService.class), 1, 1, false);
+
+        service.start(service.prepare(image("a")), COMMENT);
+        service.start(service.prepare(image("b")), COMMENT);
+
+        assertThrows(RejectedExecutionException.class, () -> service.prepare(image("c")));
+
+        release.countDown();
+        service.shutdown();
+        verify(mockRepo, times(2)).completeImageUpload(any(), any());
+        ImageUploadService.PendingUpload third = service.prepare(image("c"));
+        assertThat(Files.exists(third.file())).isTrue();
+        service.cancel(third);
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.backend.service;
+
+import org.example.backend.messaging.UserMessageSender;
+import org.example.backend.model.Notification;
+import org.example.backend.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class NotificationDispatcherTest {
+
+    private static Notification like(String recipient, String actor, String commentId) {
+        return Notification.builder()
+                .id(actor + "-" + commentId)
+                .username(recipient)
+                .actor(actor)
+                .actorCount(1)
+                .type("LIKE")
+                .targetCity("Berlin")
+                .commentId(commentId)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldCoalesceBurstIntoOneNotification() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, mockSender, null, 500, 10_000);
+
+        for (int i = 0; i < 42; i++) {
+            dispatcher.enqueue(like("author", "user" + i, "c1"));
+        }
+        dispatcher.enqueue(like("author", "user0", "c1"));
+        dispatcher.flush();
+
+        ArgumentCaptor<List<Notification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mockRepo).insertIgnoringDuplicates(inserted.capture());
+        assertThat(inserted.getValue()).hasSize(1);
+        Notification aggregated = inserted.getValue().getFirst();
+        assertThat(aggregated.getActor()).isEqualTo("user0");
+        assertThat(aggregated.getActorCount()).isEqualTo(42);
+        assertThat(aggregated.getMessage()).isEqualTo("user0 und 41 weitere haben auf dein Kommentar reagiert");
+        verify(mockSender).sendToUser(eq("author"), eq("/queue/notifications"), eq(inserted.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldSendOneFramePerRecipient() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, mockSender, mockUnread, 500, 10_000);
+
+        dispatcher.enqueue(like("author", "anna", "c1"));
+        dispatcher.enqueue(like("author", "ben", "c2"));
+        dispatcher.enqueue(like("other", "anna", "c3"));
+        dispatcher.flush();
+
+        ArgumentCaptor<List<Notification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mockRepo).insertIgnoringDuplicates(inserted.capture());
+        assertThat(inserted.getValue()).hasSize(3);
+        ArgumentCaptor<Object> frame = ArgumentCaptor.forClass(Object.class);
+        verify(mockSender).sendToUser(eq("author"), eq("/queue/notifications"), frame.capture());
+        assertThat((List<Notification>) frame.getValue()).hasSize(2);
+        verify(mockSender).sendToUser(eq("other"), eq("/queue/notifications"), any(Object.class));
+        verify(mockUnread).increment("author", 2);
+        verify(mockUnread).increment("other", 1);
+    }
+
+    @Test
+    void flush_shouldFenceUnreadCountersAroundInsertAndIncrement() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, null, mockUnread, 500, 10_000);
+
+        dispatcher.enqueue(like("author", "anna", "c1"));
+        dispatcher.flush();
+
+        InOrder order = inOrder(mockUnread, mockRepo);
+        order.verify(mockUnread).beginChange();
+        order.verify(mockRepo).insertIgnoringDuplicates(anyList());
+        order.verify(mockUnread).increment("author", 1);
+        order.verify(mockUnread).endChange();
+    }
+
+    @Test
+    void flush_shouldDoNothing_whenBufferIsEmpty() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, mockSender, null, 500, 10_000);
+
+        dispatcher.flush();
+
+        verifyNoInteractions(mockRepo, mockSender);
+    }
+
+    @Test
+    void enqueue_shouldFlushInBackground_whenBatchSizeReached() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, null, null, 2, 10_000);
+
+        dispatcher.enqueue(like("author", "anna", "c1"));
+        dispatcher.enqueue(like("author", "anna", "c2"));
+
+        verify(mockRepo, timeout(5000)).insertIgnoringDuplicates(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_shouldRetryFailedNotificationsWithTheirOriginalIds() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        when(mockRepo.insertIgnoringDuplicates(anyList()))
+                .thenThrow(new IllegalStateException("Mongo nicht erreichbar"))
+                .thenReturn(1);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, null, null, 500, 10_000);
+
+        dispatcher.enqueue(like("author", "anna", "c1"));
+        dispatcher.flush();
+        dispatcher.enqueue(like("author", "ben", "c1"));
+        dispatcher.flush();
+
+        ArgumentCaptor<List<Notification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mockRepo, times(2)).insertIgnoringDuplicates(inserted.capture());
+        Notification failed = inserted.getAllValues().get(0).getFirst();
+        List<Notification> retried = inserted.getAllValues().get(1);
+        assertThat(retried).hasSize(2);
+        assertThat(retried.getFirst().getId()).isEqualTo(failed.getId());
+        assertThat(retried.getFirst().getActor()).isEqualTo("anna");
+        assertThat(retried.get(1).getActor()).isEqualTo("ben");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void enqueue_shouldDropNewKeys_whenBufferIsFull() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        NotificationDispatcher dispatcher = new NotificationDispatcher(mockRepo, null, null, 500, 2);
+
+        dispatcher.enqueue(like("author", "anna", "c1"));
+        dispatcher.enqueue(like("author", "anna", "c2"));
+        dispatcher.enqueue(like("author", "anna", "c3"));
+        dispatcher.enqueue(like("author", "ben", "c1"));
+        dispatcher.flush();
+
+        ArgumentCaptor<List<Notification>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(mockRepo).insertIgnoringDuplicates(inserted.capture());
+        assertThat(inserted.getValue())
+                .extracting(Notification::getCommentId)
+                .containsExactlyInAnyOrder("c1", "c2");
+        assertThat(inserted.getValue())
+                .filteredOn(n -> "c1".equals(n.getCommentId()))
+                .extracting(Notification::getActorCount)
+                .containsExactly(2);
+    }
+}
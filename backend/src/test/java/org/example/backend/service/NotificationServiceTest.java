@@ -1,121 +1,180 @@
 package org.example.backend.service;
 
+import org.example.backend.model.CursorPage;
 import org.example.backend.model.Notification;
 import org.example.backend.repository.NotificationRepository;
 import org.junit.jupiter.api.Test;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
 class NotificationServiceTest {
     @Test
-    void createNotification_shouldSaveNotification() {
+    void createNotification_shouldEnqueueNotification() {
         NotificationRepository mockRepo = mock(NotificationRepository.class);
+        NotificationDispatcher mockDispatcher = mock(NotificationDispatcher.class);
 
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-
-        NotificationService service = new NotificationService(mockRepo, null);
+        NotificationService service = new NotificationService(mockRepo, mockDispatcher, mock(UnreadCountService.class));
 
         Notification n = service.createNotification("user1", "actor1", "LIKE", "Berlin", "c1", null);
 
         assertThat(n.getUsername()).isEqualTo("user1");
         assertThat(n.getActor()).isEqualTo("actor1");
         assertThat(n.getType()).isEqualTo("LIKE");
-        verify(mockRepo).save(n);
+        assertThat(n.getMessage()).isEqualTo("actor1 hat auf dein Kommentar reagiert");
+        verify(mockDispatcher).enqueue(n);
+        verify(mockRepo, never()).save(any());
     }
 
     @Test
-    void createNotification_shouldSendMessage_whenTemplatePresent() {
-        NotificationRepository mockRepo = mock(NotificationRepository.class);
-        SimpMessagingTemplate mockTemplate = mock(SimpMessagingTemplate.class);
+    void buildMessage_shouldSummarizeOtherActors() {
+        assertThat(NotificationService.buildMessage("anna", 41, "LIKE"))
+                .isEqualTo("anna und 41 weitere haben auf dein Kommentar reagiert");
+        assertThat(NotificationService.buildMessage("anna", 1, "REPLY"))
+                .isEqualTo("anna und 1 weitere Person haben auf dein Kommentar geantwortet");
+    }
 
-        when(mockRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    @Test
+    void notificationPage_shouldReturnFirstPageWithCursor() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> list = List.of(
+                Notification.builder().id("3").username("user1").createdAt(now).build(),
+                Notification.builder().id("2").username("user1").createdAt(now.minusMinutes(1)).build(),
+                Notification.builder().id("1").username("user1").createdAt(now.minusMinutes(2)).build());
+        when(mockRepo.findByUsernameOrderByCreatedAtDescIdDesc(eq("user1"), any(Pageable.class))).thenReturn(list);
 
-        NotificationService service = new NotificationService(mockRepo, mockTemplate);
+        NotificationService service = new NotificationService(mockRepo, null, mock(UnreadCountService.class));
 
-        Notification n = service.createNotification("user1", "actor1", "REPLY", "Berlin", "c1", "r1");
+        CursorPage<Notification> page = service.notificationPage("user1", null, 2);
 
-        verify(mockRepo).save(n);
-        verify(mockTemplate).convertAndSendToUser(eq("user1"), eq("/queue/notifications"), eq(n));
+        assertThat(page.getItems()).extracting(Notification::getId).containsExactly("3", "2");
+        assertThat(page.getHeadCursor()).isEqualTo(CursorCodec.encode(now, "3"));
+        assertThat(page.getNextCursor()).isEqualTo(CursorCodec.encode(now.minusMinutes(1), "2"));
+        verify(mockRepo).findByUsernameOrderByCreatedAtDescIdDesc("user1", PageRequest.ofSize(3));
     }
+
     @Test
-    void getNotifications_shouldReturnList() {
+    void notificationPage_shouldContinueAfterCursor() {
         NotificationRepository mockRepo = mock(NotificationRepository.class);
-        List<Notification> list = List.of(Notification.builder().id("1").username("user1").build());
-        when(mockRepo.findByUsernameOrderByCreatedAtDesc("user1")).thenReturn(list);
+        LocalDateTime createdAt = LocalDateTime.now();
+        Notification older = Notification.builder().id("1").username("user1").createdAt(createdAt.minusMinutes(1)).build();
+        when(mockRepo.findByUsernameBefore(eq("user1"), eq(createdAt), eq("2"), any(Pageable.class))).thenReturn(List.of(older));
 
-        NotificationService service = new NotificationService(mockRepo, null);
+        NotificationService service = new NotificationService(mockRepo, null, mock(UnreadCountService.class));
 
-        List<Notification> result = service.getNotifications("user1");
+        CursorPage<Notification> page = service.notificationPage("user1", CursorCodec.encode(createdAt, "2"), 20);
 
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getUsername()).isEqualTo("user1");
-        verify(mockRepo).findByUsernameOrderByCreatedAtDesc("user1");
+        assertThat(page.getItems()).containsExactly(older);
+        assertThat(page.getNextCursor()).isNull();
     }
+
     @Test
     void countUnread_shouldReturnCorrectNumber() {
         NotificationRepository mockRepo = mock(NotificationRepository.class);
-        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(5L);
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
+        when(mockUnread.get("user1")).thenReturn(5L);
 
-        NotificationService service = new NotificationService(mockRepo, null);
+        NotificationService service = new NotificationService(mockRepo, null, mockUnread);
 
         long count = service.countUnread("user1");
 
         assertThat(count).isEqualTo(5L);
-        verify(mockRepo).countByUsernameAndReadFalse("user1");
+        verify(mockRepo, never()).countByUsernameAndReadFalse(any());
     }
+
     @Test
-    void markAsRead_shouldMarkNotificationAsRead() {
+    void markAsRead_shouldMarkNotificationAsReadAndDecrementCounter() {
         NotificationRepository mockRepo = mock(NotificationRepository.class);
-        Notification n = Notification.builder().id("n1").read(false).build();
-        when(mockRepo.findById("n1")).thenReturn(Optional.of(n));
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
+        when(mockRepo.markRead(eq("n1"), any(LocalDateTime.class)))
+                .thenReturn(Notification.builder().id("n1").username("user1").read(true).build());
 
-        NotificationService service = new NotificationService(mockRepo, null);
+        NotificationService service = new NotificationService(mockRepo, null, mockUnread);
 
         service.markAsRead("n1");
 
-        assertThat(n.isRead()).isTrue();
-        verify(mockRepo).save(n);
+        verify(mockUnread).decrement("user1", 1);
+        verify(mockRepo, never()).save(any());
     }
 
     @Test
-    void markAsRead_shouldDoNothingIfNotificationNotFound() {
+    void markAsRead_shouldNotDecrement_whenAlreadyRead() {
         NotificationRepository mockRepo = mock(NotificationRepository.class);
-        when(mockRepo.findById("n1")).thenReturn(Optional.empty());
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
 
-        NotificationService service = new NotificationService(mockRepo, null);
+        NotificationService service = new NotificationService(mockRepo, null, mockUnread);
 
         service.markAsRead("n1");
 
-        verify(mockRepo, never()).save(any());
+        verifyNoInteractions(mockUnread);
     }
+
     @Test
-    void markAllAsRead_shouldMarkAllNotificationsAsRead() {
+    void markAllAsRead_shouldReturnModifiedCountAndDecrementCounter() {
         NotificationRepository mockRepo = mock(NotificationRepository.class);
-        Notification n1 = Notification.builder().id("1").read(false).build();
-        Notification n2 = Notification.builder().id("2").read(false).build();
-        List<Notification> list = new ArrayList<>(List.of(n1, n2));
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
+        when(mockRepo.markAllRead(eq("user1"), any(LocalDateTime.class))).thenReturn(2L);
 
-        when(mockRepo.findByUsernameAndReadFalseOrderByCreatedAtDesc("user1")).thenReturn(list);
+        NotificationService service = new NotificationService(mockRepo, null, mockUnread);
 
-        NotificationService service = new NotificationService(mockRepo, null);
+        assertThat(service.markAllAsRead("user1")).isEqualTo(2L);
+        verify(mockUnread).decrement("user1", 2L);
+        verify(mockRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void markReadUpTo_shouldUseCursorPosition() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        LocalDateTime createdAt = LocalDateTime.now();
+        when(mockRepo.markReadUpTo(eq("user1"), eq(createdAt), eq("n5"), any(LocalDateTime.class))).thenReturn(5L);
 
-        service.markAllAsRead("user1");
+        NotificationService service = new NotificationService(mockRepo, null, mock(UnreadCountService.class));
 
-        assertThat(list).allMatch(Notification::isRead);
-        verify(mockRepo).saveAll(list);
+        assertThat(service.markReadUpTo("user1", CursorCodec.encode(createdAt, "n5"), null, null)).isEqualTo(5L);
     }
 
+    @Test
+    void markReadUpTo_shouldLimitToDisplayedRange_whenBothBoundsGiven() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        LocalDateTime newest = LocalDateTime.now();
+        LocalDateTime oldest = newest.minusHours(1);
+        when(mockRepo.markReadBetween(eq("user1"), eq(newest), eq("n9"), eq(oldest), eq("n5"), any(LocalDateTime.class)))
+                .thenReturn(4L);
+        UnreadCountService mockUnread = mock(UnreadCountService.class);
+
+        NotificationService service = new NotificationService(mockRepo, null, mockUnread);
+
+        assertThat(service.markReadUpTo("user1", CursorCodec.encode(newest, "n9"), CursorCodec.encode(oldest, "n5"), null))
+                .isEqualTo(4L);
+        verify(mockUnread).decrement("user1", 4L);
+        verify(mockRepo, never()).markReadUpTo(any(), any(), any(), any());
+    }
 
+    @Test
+    void markReadUpTo_shouldUseTimestamp_whenNoCursorGiven() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        LocalDateTime upTo = LocalDateTime.now();
+        when(mockRepo.markReadUpTo(eq("user1"), eq(upTo), isNull(), any(LocalDateTime.class))).thenReturn(3L);
 
+        NotificationService service = new NotificationService(mockRepo, null, mock(UnreadCountService.class));
 
+        assertThat(service.markReadUpTo("user1", null, null, upTo)).isEqualTo(3L);
+    }
 
+    @Test
+    void markReadUpTo_shouldRejectMissingPosition() {
+        NotificationService service = new NotificationService(mock(NotificationRepository.class), null, mock(UnreadCountService.class));
 
-}
\ No newline at end of file
+        assertThrows(IllegalArgumentException.class, () -> service.markReadUpTo("user1", null, null, null));
+    }
+}
@@ -0,0 +1,151 @@
+package org.example.backend.service;
+
+import org.example.backend.messaging.UserMessageSender;
+import org.example.backend.model.UnreadCountUpdate;
+import org.example.backend.model.UserMessage;
+import org.example.backend.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class UnreadCountServiceTest {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+
+    @Test
+    void get_shouldSeedFromMongoOnlyOnce() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(3L);
+        UnreadCountService service = new UnreadCountService(mockRepo, null, "simple", MAX_AGE);
+
+        assertThat(service.get("user1")).isEqualTo(3L);
+        assertThat(service.get("user1")).isEqualTo(3L);
+
+        verify(mockRepo, times(1)).countByUsernameAndReadFalse("user1");
+    }
+
+    @Test
+    void incrementAndDecrement_shouldUpdateCounterAndPushDelta() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(3L);
+        UnreadCountService service = new UnreadCountService(mockRepo, mockSender, "simple", MAX_AGE);
+        service.get("user1");
+
+        service.increment("user1", 2);
+        service.decrement("user1", 10);
+
+        assertThat(service.get("user1")).isZero();
+        verify(mockSender).sendToUser("user1", "/queue/unread-count",
+                UnreadCountUpdate.builder().count(5).delta(2).build());
+        verify(mockSender).sendToUser("user1", "/queue/unread-count",
+                UnreadCountUpdate.builder().count(0).delta(-10).build());
+        verify(mockRepo, times(1)).countByUsernameAndReadFalse("user1");
+    }
+
+    @Test
+    void increment_shouldSeedFromMongo_whenCounterNotLoaded() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(4L);
+        UnreadCountService service = new UnreadCountService(mockRepo, mockSender, "simple", MAX_AGE);
+
+        service.increment("user1", 1);
+
+        verify(mockSender).sendToUser("user1", "/queue/unread-count",
+                UnreadCountUpdate.builder().count(4).delta(1).build());
+    }
+
+    @Test
+    void resync_shouldReloadCountersFromMongo() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(3L, 7L);
+        UnreadCountService service = new UnreadCountService(mockRepo, null, "simple", MAX_AGE);
+        service.get("user1");
+
+        service.resync();
+
+        assertThat(service.get("user1")).isEqualTo(7L);
+    }
+
+    @Test
+    void onUserMessage_shouldDropCounterChangedOnAnotherNode() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(3L, 8L);
+        UnreadCountService service = new UnreadCountService(mockRepo, null, "change-stream", MAX_AGE);
+        service.get("user1");
+
+        service.onUserMessage(UserMessage.builder().username("user1").destination("/queue/notifications").build());
+        assertThat(service.get("user1")).isEqualTo(3L);
+
+        service.onUserMessage(UserMessage.builder().username("user1").destination("/queue/unread-count").build());
+        assertThat(service.get("user1")).isEqualTo(8L);
+    }
+
+    @Test
+    void get_shouldNotKeepSeed_whenChangeRacesTheCount() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        UnreadCountService service = new UnreadCountService(mockRepo, mockSender, "simple", MAX_AGE);
+        when(mockRepo.countByUsernameAndReadFalse("user1"))
+                .thenAnswer(invocation -> {
+                    service.beginChange();
+                    return 4L;
+                })
+                .thenReturn(4L);
+
+        assertThat(service.get("user1")).isEqualTo(4L);
+        service.increment("user1", 1);
+        service.endChange();
+
+        assertThat(service.get("user1")).isEqualTo(4L);
+        service.increment("user1", 1);
+        verify(mockSender).sendToUser("user1", "/queue/unread-count",
+                UnreadCountUpdate.builder().count(5).delta(1).build());
+        verify(mockRepo, times(3)).countByUsernameAndReadFalse("user1");
+    }
+
+    @Test
+    void get_shouldNotSeedWhileChangeIsInFlight() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(2L, 3L);
+        UnreadCountService service = new UnreadCountService(mockRepo, null, "simple", MAX_AGE);
+
+        service.beginChange();
+        assertThat(service.get("user1")).isEqualTo(2L);
+        service.endChange();
+
+        assertThat(service.get("user1")).isEqualTo(3L);
+        assertThat(service.get("user1")).isEqualTo(3L);
+        verify(mockRepo, times(2)).countByUsernameAndReadFalse("user1");
+    }
+
+    @Test
+    void get_shouldCacheUntilMaxAge_whenMessagesGoThroughRelay() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        UserMessageSender mockSender = mock(UserMessageSender.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(3L);
+        UnreadCountService service = new UnreadCountService(mockRepo, mockSender, "relay", MAX_AGE);
+
+        assertThat(service.get("user1")).isEqualTo(3L);
+        service.increment("user1", 1);
+        assertThat(service.get("user1")).isEqualTo(4L);
+
+        verify(mockSender).sendToUser("user1", "/queue/unread-count",
+                UnreadCountUpdate.builder().count(4).delta(1).build());
+        verify(mockRepo, times(1)).countByUsernameAndReadFalse("user1");
+    }
+
+    @Test
+    void get_shouldRecount_whenRelayCounterExpired() {
+        NotificationRepository mockRepo = mock(NotificationRepository.class);
+        when(mockRepo.countByUsernameAndReadFalse("user1")).thenReturn(3L, 6L);
+        UnreadCountService service = new UnreadCountService(mockRepo, null, "relay", Duration.ZERO);
+
+        assertThat(service.get("user1")).isEqualTo(3L);
+        assertThat(service.get("user1")).isEqualTo(6L);
+    }
+}
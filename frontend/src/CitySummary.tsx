@@ -29,6 +29,7 @@ type CityComment = {
     username: string;
     comment: string;
     imageUrl?: string;
+    thumbnailUrl?: string;
     createdAt: string;
     updatedAt: string;
     likesCount: number;
@@ -41,6 +42,11 @@ type CityComment = {
     }[];
 };
 
+type CommentPage = {
+    items: CityComment[];
+    nextCursor?: string | null;
+};
+
 type Props = {
     readonly  cityName: string;
     readonly  user: string |undefined|null
@@ -56,6 +62,7 @@ export default function CitySummary({ cityName, user }: Props) {
     const [comment, setComment] = useState("");
     const [message, setMessage] = useState("");
     const [comments, setComments] = useState<CityComment[]>([]);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
     const [image, setImage] = useState<File>();
     const [favMessage, setFavMessage] = useState("");
     const [isFavorite, setIsFavorite] = useState(false);
@@ -89,11 +96,12 @@ export default function CitySummary({ cityName, user }: Props) {
                 setData(null);
             });
 
-        axios.get(`/api/comment/${encodeURIComponent(cityName)}`)
-            .then((res) => setComments(res.data))
+        fetchCommentPage()
+            .then((res) => showCommentPage(res.data))
             .catch((err) => {
                 console.error("Comment Fehler", err);
                 setComments([]);
+                setNextCursor(null);
             })
             .finally(() => setLoading(false));
 
@@ -129,6 +137,27 @@ export default function CitySummary({ cityName, user }: Props) {
         }
     }, [location.hash, comments]);
 
+    function fetchCommentPage(cursor?: string) {
+        return axios.get<CommentPage>(`/api/comment/${encodeURIComponent(cityName)}/page`, {
+            params: { cursor, username: user ?? undefined }
+        });
+    }
+
+    function showCommentPage(page: CommentPage) {
+        setComments(page.items);
+        setNextCursor(page.nextCursor ?? null);
+    }
+
+    function loadMoreComments() {
+        if (!nextCursor) return;
+        fetchCommentPage(nextCursor)
+            .then(res => {
+                setComments(prev => [...prev, ...res.data.items]);
+                setNextCursor(res.data.nextCursor ?? null);
+            })
+            .catch(err => console.error("Comment Fehler", err));
+    }
+
     function addComment(event?: React.FormEvent<HTMLFormElement>) {
         event?.preventDefault();
         const data = new FormData();
@@ -152,9 +181,9 @@ export default function CitySummary({ cityName, user }: Props) {
                 setMessage("Kommentar erfolgreich hinzugefügt");
                 setComment("");
                 setImage(undefined);
-                return axios.get(`/api/comment/${encodeURIComponent(cityName)}`);
+                return fetchCommentPage();
             })
-            .then(res => setComments(res.data))
+            .then(res => showCommentPage(res.data))
             .catch((error) => {
                 if (error.response) {
                     setMessage(error.response.data?.message || "Fehler beim Hochladen");
@@ -368,8 +397,9 @@ export default function CitySummary({ cityName, user }: Props) {
                                             }}
                                         >
                                             <img
-                                                src={c.imageUrl}
+                                                src={c.thumbnailUrl ?? c.imageUrl}
                                                 alt="Bild zur Stadt"
+                                                loading="lazy"
                                                 style={{ maxWidth: "200px", display: "block" }}
                                             />
                                         </button>
@@ -497,6 +527,9 @@ export default function CitySummary({ cityName, user }: Props) {
 
                     </ul>
                 )}
+                {nextCursor && (
+                    <button onClick={loadMoreComments}>Weitere Kommentare laden</button>
+                )}
             </div>
 
 